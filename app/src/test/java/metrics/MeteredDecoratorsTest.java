@@ -0,0 +1,52 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.TransactionRepository;
+import service.AuthService;
+import service.TransactionService;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A public method added to a metered type must be metered too, or its calls would go unrecorded
+class MeteredDecoratorsTest {
+
+    @Test
+    void transactionServiceIsFullyMetered() {
+        assertEquals(List.of(), unmetered(TransactionService.class, MeteredTransactionService.class));
+    }
+
+    @Test
+    void authServiceIsFullyMetered() {
+        assertEquals(List.of(), unmetered(AuthService.class, MeteredAuthService.class));
+    }
+
+    @Test
+    void repositoriesAreFullyMetered() {
+        assertEquals(List.of(), unmetered(ClientRepository.class, MeteredClientRepository.class));
+        assertEquals(List.of(), unmetered(AccountRepository.class, MeteredAccountRepository.class));
+        assertEquals(List.of(), unmetered(TransactionRepository.class, MeteredTransactionRepository.class));
+    }
+
+    // public instance methods of the metered type that the decorator does not declare itself
+    private static List<String> unmetered(Class<?> metered, Class<?> decorator) {
+        List<String> missing = new ArrayList<>();
+        for (Method method : metered.getDeclaredMethods()) {
+            if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            try {
+                decorator.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                missing.add(method.getName());
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import model.enums.TypeTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TransactionHistoryTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static Transaction deposit(LocalDateTime date) {
+        return new Transaction(UUID.randomUUID(), TypeTransaction.DEPOSIT, 100, date, "deposit", null, null);
+    }
+
+    @Test
+    void keepsLatePostingsInDateOrder() {
+        TransactionHistory history = new TransactionHistory();
+        Transaction second = deposit(START.plusMinutes(2));
+        Transaction third = deposit(START.plusMinutes(3));
+        Transaction first = deposit(START.plusMinutes(1));
+        history.add(second);
+        history.add(third);
+        history.add(first);
+
+        assertEquals(List.of(first, second, third), history.snapshot());
+        assertEquals(List.of(third, second, first), history.newestFirst());
+        assertEquals(List.of(first, second), history.between(null, START.plusMinutes(2)));
+    }
+
+    @Test
+    void readersSeeExactlyThePostingsMadeSoFar() throws Exception {
+        int postings = 20_000;
+        List<Transaction> posted = new ArrayList<>(postings);
+        for (int i = 0; i < postings; i++) {
+            // every third posting is dated before the newest one, so it is inserted rather than appended
+            LocalDateTime date = i % 3 == 2 ? START.plusSeconds(i - 2) : START.plusSeconds(i);
+            posted.add(deposit(date));
+        }
+
+        TransactionHistory history = new TransactionHistory();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && mismatch.get() == null) {
+                List<Transaction> seen = history.snapshot();
+                Set<Transaction> expected = new HashSet<>(posted.subList(0, seen.size()));
+                if (!expected.equals(new HashSet<>(seen))) {
+                    mismatch.set("snapshot of " + seen.size() + " is not the first " + seen.size() + " postings");
+                }
+                List<Transaction> window = history.between(START, null);
+                if (!new HashSet<>(posted.subList(0, window.size())).equals(new HashSet<>(window))) {
+                    mismatch.set("window of " + window.size() + " is not the first " + window.size() + " postings");
+                }
+            }
+        });
+        reader.start();
+        for (Transaction transaction : posted) {
+            history.add(transaction);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(mismatch.get());
+        assertEquals(postings, history.size());
+    }
+}
@@ -0,0 +1,108 @@
+package service;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.InMemoryImpl.InMemoryAccountRepository;
+import repository.InMemoryImpl.InMemoryClientRepository;
+import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.journal.Journal;
+import util.DateUtil;
+import util.MoneyUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkImportServiceTest {
+    private final InMemoryClientRepository clientRepository = new InMemoryClientRepository();
+    private final InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    private final InMemoryTransactionRepository transactionRepository = new InMemoryTransactionRepository();
+    private final SystemStatistics statistics = new SystemStatistics();
+    private final ClientService clientService = new ClientService(clientRepository, new AuthService(clientRepository));
+    private final AccountService accountService = new AccountService(accountRepository, Journal.NONE, statistics);
+    private final TransactionService transactionService =
+        new TransactionService(transactionRepository, accountRepository, Journal.NONE, statistics);
+    private final BulkImportService importService =
+        new BulkImportService(clientRepository, accountRepository, transactionService, statistics, Journal.NONE);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void importingAnExportedLedgerAgainChangesNothing() throws IOException {
+        List<Account> accounts = openAccounts();
+        postSome(accounts);
+        Path export = directory.resolve("ledger.csv");
+        long exported = new ExportService(transactionRepository).exportLedger(export, ExportService.Format.CSV, null, null);
+        List<Long> balances = balances(accounts);
+        long systemBalance = accountService.getTotalSystemBalance();
+
+        ImportReport report = importService.importTransactions(export);
+
+        assertEquals(exported, report.getDuplicates());
+        assertEquals(0, report.getImported());
+        assertEquals(balances, balances(accounts));
+        assertEquals(systemBalance, accountService.getTotalSystemBalance());
+        assertEquals(exported, transactionRepository.findAll().size());
+    }
+
+    @Test
+    void wholeSecondDatesStillMatchPostingsStampedToTheNanosecond() throws IOException {
+        List<Account> accounts = openAccounts();
+        postSome(accounts);
+        // the format exports had before they kept the fraction of a second
+        StringBuilder file = new StringBuilder("transaction_id,date,type,amount,source_account,destination_account,description\n");
+        for (Transaction t : transactionRepository.findAll()) {
+            file.append(t.getTransactionId()).append(',');
+            DateUtil.formatIsoTo(file, t.getDate().truncatedTo(ChronoUnit.SECONDS)).append(',');
+            file.append(t.getTransactionType().name()).append(',');
+            MoneyUtil.formatTo(file, t.getAmount()).append(',');
+            file.append(t.getSourceAccount().getAccountId()).append(',');
+            file.append(t.getDestinationAccount() == null ? "" : t.getDestinationAccount().getAccountId()).append(',');
+            file.append(t.getDescription()).append('\n');
+        }
+        Path legacy = Files.writeString(directory.resolve("legacy.csv"), file);
+        List<Long> balances = balances(accounts);
+
+        ImportReport report = importService.importTransactions(legacy);
+
+        assertEquals(0, report.getImported());
+        assertEquals(transactionRepository.findAll().size(), report.getDuplicates());
+        assertEquals(balances, balances(accounts));
+    }
+
+    private List<Account> openAccounts() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Client client = clientService.createClient("Ann", "Lee", "client" + i + "@bank.ma", "secret1");
+            accounts.add(accountService.createAccount(client, TypeAccount.CHECKING, MoneyUtil.ofDh(5000)));
+        }
+        return accounts;
+    }
+
+    private void postSome(List<Account> accounts) {
+        for (int i = 0; i < 30; i++) {
+            Account account = accounts.get(i % accounts.size());
+            transactionService.deposit(account, MoneyUtil.ofDh(100 + i), "Deposit");
+            transactionService.withdraw(account, MoneyUtil.ofDh(50), "Withdraw");
+            transactionService.transfer(account, accounts.get((i + 1) % accounts.size()), MoneyUtil.ofDh(20), "Transfer");
+        }
+    }
+
+    private static List<Long> balances(List<Account> accounts) {
+        List<Long> balances = new ArrayList<>();
+        for (Account account : accounts) {
+            balances.add(account.getBalance());
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,81 @@
+package service;
+
+import model.Client;
+import model.enums.Role;
+import org.junit.jupiter.api.Test;
+import repository.InMemoryImpl.InMemoryClientRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientServiceTest {
+    private final InMemoryClientRepository repository = new InMemoryClientRepository();
+    private final ClientService clientService = new ClientService(repository, new AuthService(repository));
+
+    // Both sign-ups pass the email check before either saves, so they always race into save
+    @Test
+    void onlyOneOfTwoSignUpsPastTheEmailCheckSucceeds() throws Exception {
+        CyclicBarrier bothChecked = new CyclicBarrier(2);
+        AuthService holdingAuth = new AuthService(repository) {
+            @Override
+            public boolean emailExists(String email, Role role) {
+                boolean exists = super.emailExists(email, role);
+                try {
+                    bothChecked.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("The other sign-up never reached the check", e);
+                }
+                return exists;
+            }
+        };
+        ClientService racingService = new ClientService(repository, holdingAuth);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            // the same address, cased differently
+            Future<Boolean> first = pool.submit(() -> signUp(racingService, "ann@bank.ma"));
+            Future<Boolean> second = pool.submit(() -> signUp(racingService, "ANN@bank.ma"));
+            int succeeded = (first.get(10, TimeUnit.SECONDS) ? 1 : 0) + (second.get(10, TimeUnit.SECONDS) ? 1 : 0);
+
+            assertEquals(1, succeeded);
+            assertEquals(1, repository.findAll().size());
+            assertEquals(repository.findAll().get(0), repository.findByEmail("Ann@Bank.ma").orElseThrow());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void listsClientsInRegistrationOrder() {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            emails.add("client" + i + "@bank.ma");
+            clientService.createClient("Ann", "Lee", emails.get(i), "secret1");
+        }
+        clientService.deleteClient(clientService.listClients().get(50).getClientId());
+        emails.remove(50);
+
+        List<String> listed = new ArrayList<>();
+        for (Client client : clientService.listClients()) {
+            listed.add(client.getEmail());
+        }
+        assertEquals(emails, listed);
+    }
+
+    private static boolean signUp(ClientService service, String email) {
+        try {
+            service.createClient("Ann", "Lee", email, "secret1");
+            return true;
+        } catch (IllegalArgumentException e) {
+            assertEquals("Email already exists", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package service.fraud;
+
+import model.Account;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransferGraphCheckTest {
+    private final TransferGraphCheck check = new TransferGraphCheck(
+        new TransferGraph(4, Duration.ofHours(24), 10, Duration.ofHours(1)), "ring", "fan-out", "fan-in");
+    private final AtomicInteger rings = new AtomicInteger();
+    private final AlertSink sink = new AlertSink() {
+        @Override
+        public void flag(Transaction transaction) {
+        }
+
+        @Override
+        public void flag(Transaction transaction, String reason) {
+            if (reason.equals("ring")) {
+                rings.incrementAndGet();
+            }
+        }
+    };
+
+    // far more transfers than the queue holds: the poster waits for room and nothing is skipped
+    @Test
+    void checksEveryTransferWhenTheQueueFillsUp() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int rounds = 10_000;
+        for (int i = 0; i < rounds; i++) {
+            Account a = account();
+            Account b = account();
+            Account c = account();
+            check.test(transfer(a, b, date), sink);
+            check.test(transfer(b, c, date), sink);
+            check.test(transfer(c, a, date), sink);
+            date = date.plusSeconds(1);
+        }
+        check.flush();
+        assertEquals(rounds, rings.get());
+    }
+
+    private static Account account() {
+        return new Account(UUID.randomUUID(), TypeAccount.CHECKING, 0, new ArrayList<>(), null);
+    }
+
+    private static Transaction transfer(Account source, Account destination, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID(), TypeTransaction.TRANSFER, 100_00, date, "Transfer", source, destination);
+    }
+}
@@ -0,0 +1,110 @@
+package service.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferGraphTest {
+    private static final long AMOUNT = 100_00;
+
+    private final TransferGraph graph = new TransferGraph(4, Duration.ofHours(24), 10, Duration.ofHours(1));
+    private long now = Duration.ofDays(1).toNanos();
+
+    private final UUID d = UUID.randomUUID();
+    private final UUID x = UUID.randomUUID();
+    private final UUID y = UUID.randomUUID();
+    private final UUID z = UUID.randomUUID();
+    private final UUID s = UUID.randomUUID();
+
+    @Test
+    void findsRingOfThreeAccounts() {
+        assertEquals(0, transfer(d, y));
+        assertEquals(0, transfer(y, s));
+        assertEquals(TransferGraph.RING, transfer(s, d));
+    }
+
+    // D→X is newer than D→Y, so the search reaches Y through X first, two edges deep. The ring
+    // through D→Y→Z→S only fits when Y is expanded again from the shorter path.
+    @Test
+    void findsRingBehindLongerPathToSameAccount() {
+        assertEquals(0, transfer(d, y));
+        assertEquals(0, transfer(y, z));
+        assertEquals(0, transfer(z, s));
+        assertEquals(0, transfer(x, y));
+        assertEquals(0, transfer(d, x));
+        assertEquals(TransferGraph.RING, transfer(s, d));
+    }
+
+    @Test
+    void ignoresRingLongerThanLimit() {
+        assertEquals(0, transfer(d, x));
+        assertEquals(0, transfer(x, y));
+        assertEquals(0, transfer(y, z));
+        assertEquals(0, transfer(z, s));
+        assertEquals(0, transfer(s, d));
+    }
+
+    @Test
+    void ignoresEdgesOutsideRingWindow() {
+        assertEquals(0, transfer(d, y));
+        assertEquals(0, transfer(y, s));
+        now += Duration.ofHours(25).toNanos();
+        assertEquals(0, transfer(s, d));
+    }
+
+    @Test
+    void flagsFanOutPastCounterpartyLimit() {
+        assertEquals(0, transfer(s, d));
+        for (int i = 0; i < 9; i++) {
+            assertEquals(0, transfer(s, UUID.randomUUID()));
+        }
+        // paying a counterparty again within the window is not a new one
+        assertEquals(0, transfer(s, d));
+        assertEquals(TransferGraph.FAN_OUT, transfer(s, x));
+    }
+
+    @Test
+    void flagsFanInPastCounterpartyLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, transfer(UUID.randomUUID(), d));
+        }
+        assertEquals(TransferGraph.FAN_IN, transfer(s, d));
+    }
+
+    @Test
+    void ignoresCounterpartiesSpreadBeyondFanWindow() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, transfer(s, UUID.randomUUID()));
+            assertEquals(0, transfer(UUID.randomUUID(), d));
+            now += Duration.ofMinutes(7).toNanos();
+        }
+    }
+
+    @Test
+    void dropsEdgesOlderThanTheWindows() {
+        // one new pair a minute for ten days: only the last day's edges can still matter
+        for (int i = 0; i < 14_400; i++) {
+            graph.recordTransfer(UUID.randomUUID(), UUID.randomUUID(), now, AMOUNT);
+            now += Duration.ofMinutes(1).toNanos();
+        }
+        assertTrue(graph.getEdgeCount() <= 2 * (24 * 60 + 1), "edges kept: " + graph.getEdgeCount());
+
+        // a ring made of edges still inside the window survives the sweeps
+        assertEquals(0, transfer(d, y));
+        assertEquals(0, transfer(y, s));
+        for (int i = 0; i < 3000; i++) {
+            graph.recordTransfer(UUID.randomUUID(), UUID.randomUUID(), now, AMOUNT);
+        }
+        assertEquals(TransferGraph.RING, transfer(s, d));
+        assertEquals(AMOUNT, graph.transferredBetween(d, y));
+    }
+
+    private int transfer(UUID source, UUID destination) {
+        now += Duration.ofSeconds(1).toNanos();
+        return graph.recordTransfer(source, destination, now, AMOUNT);
+    }
+}
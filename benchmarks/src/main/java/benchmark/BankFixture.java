@@ -0,0 +1,90 @@
+package benchmark;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import repository.InMemoryImpl.InMemoryAccountRepository;
+import repository.InMemoryImpl.InMemoryClientRepository;
+import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.TransactionRepository;
+import repository.journal.Journal;
+import service.AccountService;
+import service.SystemStatistics;
+import service.TransactionService;
+import util.MoneyUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A bank holding a ledger of `rows` transactions, shared by the service and repository benchmarks.
+ * There is one client with one account per ROWS_PER_ACCOUNT rows (at least 100), each opened with
+ * more money than any benchmark withdraws. The ledger mixes deposits, withdrawals and transfers
+ * over a few round amounts, dated a second apart, and goes through TransactionService.restore so
+ * statistics, account histories and fraud alerts are all built as they would be after recovery.
+ * The same size always gives the same ledger.
+ */
+final class BankFixture {
+    static final int ROWS_PER_ACCOUNT = 10;
+    static final long OPENING_BALANCE = MoneyUtil.ofDh(1_000_000_000L);
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+
+    final InMemoryClientRepository clientRepository = new InMemoryClientRepository();
+    final InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    final TransactionRepository transactionRepository = new InMemoryTransactionRepository();
+    final SystemStatistics statistics = new SystemStatistics();
+    final AccountService accountService = new AccountService(accountRepository, Journal.NONE, statistics);
+    final TransactionService transactionService =
+        new TransactionService(transactionRepository, accountRepository, Journal.NONE, statistics);
+    final Client[] clients;
+    final Account[] accounts;
+
+    BankFixture(int rows) {
+        Random random = new Random(42);
+        int accountCount = Math.max(rows / ROWS_PER_ACCOUNT, 100);
+        clients = new Client[accountCount];
+        accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Client client = new Client("First" + i, "Last" + i, "client" + i + "@bank.ma", "secret",
+                new UUID(random.nextLong(), random.nextLong()), new ArrayList<>());
+            clientRepository.save(client);
+            clients[i] = client;
+            accounts[i] = accountService.createAccount(client, TypeAccount.CHECKING, OPENING_BALANCE);
+        }
+
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            TypeTransaction type = TYPES[random.nextInt(TYPES.length)];
+            int sourceIndex = random.nextInt(accountCount);
+            Account source = accounts[sourceIndex];
+            Account destination = null;
+            if (type == TypeTransaction.TRANSFER) {
+                destination = accounts[(sourceIndex + 1 + random.nextInt(accountCount - 1)) % accountCount];
+            }
+            transactionService.restore(new Transaction(new UUID(random.nextLong(), random.nextLong()), type,
+                MoneyUtil.ofDh(500L * (1 + random.nextInt(40))), date.plusSeconds(i), type.name(), source, destination));
+        }
+    }
+
+    Account randomAccount() {
+        return accounts[ThreadLocalRandom.current().nextInt(accounts.length)];
+    }
+
+    Client randomClient() {
+        return clients[ThreadLocalRandom.current().nextInt(clients.length)];
+    }
+
+    // an account other than the given one
+    Account otherAccount(Account account) {
+        Account other;
+        do {
+            other = randomAccount();
+        } while (other == account);
+        return other;
+    }
+}
@@ -0,0 +1,323 @@
+package benchmark;
+
+import exceptions.InsufficientBalanceException;
+import exceptions.InvalidTransactionException;
+import model.Account;
+import model.Client;
+import model.enums.TypeAccount;
+import repository.InMemoryImpl.InMemoryAccountRepository;
+import repository.InMemoryImpl.InMemoryClientRepository;
+import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.TransactionQuery;
+import repository.journal.FileJournal;
+import repository.journal.Journal;
+import service.AccountService;
+import service.AuthService;
+import service.ClientService;
+import service.SystemStatistics;
+import service.TransactionService;
+import util.LatencyHistogram;
+import util.MoneyUtil;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load driver: seeds `clients` clients, each with one account, through ClientService and
+ * AccountService, then has `threads` workers fire a weighted mix of operations at the services for
+ * `seconds` (after `warmup` unrecorded seconds) and reports, per operation, throughput, latency
+ * percentiles and how often it failed and why. Amounts are drawn a little past the posting limits and
+ * opening balances are modest, so limit and insufficient-balance rejections show up as they would.
+ *
+ *   deposit / withdraw / transfer  TransactionService postings between random accounts
+ *   history                        a client's newest 20 transactions, as the history screen reads them
+ *   statistics                     everything the banker's statistics screen reads
+ *
+ * Usage: LoadDriver [clients=10000] [threads=4] [seconds=30] [warmup=5]
+ *                   [mix=deposit:30,withdraw:25,transfer:25,history:15,statistics:5] [journal=<path>]
+ * Without journal= postings are not journaled, which leaves the disk out of the numbers.
+ */
+public class LoadDriver {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final int HISTORY_PAGE = 20;
+
+    private enum Operation { DEPOSIT, WITHDRAW, TRANSFER, HISTORY, STATISTICS }
+
+    // how a call ended; everything except OK counts as an error
+    private enum Outcome { OK, INSUFFICIENT_BALANCE, INVALID, REJECTED, OTHER }
+
+    private static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+        OperationStats() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        long calls() {
+            long calls = 0;
+            for (LongAdder outcome : outcomes) {
+                calls += outcome.sum();
+            }
+            return calls;
+        }
+    }
+
+    private final ClientService clientService;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final OperationStats[] stats = new OperationStats[Operation.values().length];
+    private final List<Account> accounts = new ArrayList<>();
+    private volatile boolean recording;
+
+    private LoadDriver(Journal journal, Map<Operation, Integer> mix) {
+        InMemoryClientRepository clientRepository = new InMemoryClientRepository();
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        SystemStatistics statistics = new SystemStatistics();
+        clientService = new ClientService(clientRepository, new AuthService(clientRepository), journal);
+        accountService = new AccountService(accountRepository, journal, statistics);
+        transactionService = new TransactionService(new InMemoryTransactionRepository(), accountRepository, journal, statistics);
+
+        operations = mix.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new OperationStats();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("clients", "10000");
+        options.put("threads", "4");
+        options.put("seconds", "30");
+        options.put("warmup", "5");
+        options.put("mix", "deposit:30,withdraw:25,transfer:25,history:15,statistics:5");
+        options.put("journal", "");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0 || !options.containsKey(arg.substring(0, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        int clientCount = Integer.parseInt(options.get("clients"));
+        int threads = Integer.parseInt(options.get("threads"));
+        Journal journal = options.get("journal").isEmpty() ? Journal.NONE : FileJournal.open(Path.of(options.get("journal")));
+        LoadDriver driver = new LoadDriver(journal, parseMix(options.get("mix")));
+
+        long seedStart = System.nanoTime();
+        driver.seed(clientCount, threads);
+        System.out.printf("Seeded %d clients and accounts in %.2f s%n", clientCount, (System.nanoTime() - seedStart) / 1e9);
+
+        driver.run(threads, Long.parseLong(options.get("warmup")), Long.parseLong(options.get("seconds")));
+        if (journal instanceof FileJournal) {
+            ((FileJournal) journal).close();
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+
+    // clients are created on all worker threads, like tellers onboarding at once
+    private void seed(int clientCount, int threads) throws InterruptedException {
+        Account[] seeded = new Account[clientCount];
+        AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int i;
+                while ((i = next.getAndIncrement()) < clientCount) {
+                    Client client = clientService.createClient("Load", lettersOf(i), "load" + i + "@bank.ma", "secret" + i);
+                    seeded[i] = accountService.createAccount(client, TypeAccount.CHECKING,
+                        MoneyUtil.ofDh(random.nextInt(50_000)));
+                }
+            }, "load-seed-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        accounts.addAll(List.of(seeded));
+    }
+
+    // names may only hold letters, so the client number is spelled in base 26
+    private static String lettersOf(int number) {
+        StringBuilder letters = new StringBuilder("Client");
+        int start = letters.length();
+        do {
+            letters.insert(start, (char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return letters.toString();
+    }
+
+    private void run(int threads, long warmupSeconds, long seconds) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long deadline = warmupEnd + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    step();
+                }
+            }, "load-worker-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        Thread.sleep(warmupSeconds * 1000);
+        recording = true;
+        long begin = System.nanoTime();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        recording = false;
+        report(threads, (System.nanoTime() - begin) / 1e9);
+    }
+
+    private void step() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pick(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+        long begin = System.nanoTime();
+        Outcome outcome;
+        try {
+            perform(operation, random);
+            outcome = Outcome.OK;
+        } catch (InsufficientBalanceException e) {
+            outcome = Outcome.INSUFFICIENT_BALANCE;
+        } catch (IllegalArgumentException e) {
+            outcome = Outcome.INVALID;
+        } catch (InvalidTransactionException e) {
+            outcome = Outcome.REJECTED;
+        } catch (RuntimeException e) {
+            outcome = Outcome.OTHER;
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (recording) {
+            OperationStats operationStats = stats[operation.ordinal()];
+            operationStats.latency.record(elapsed);
+            operationStats.outcomes[outcome.ordinal()].increment();
+        }
+    }
+
+    private Operation pick(int ticket) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    // amounts run up to about 20% past each posting limit
+    private void perform(Operation operation, ThreadLocalRandom random) {
+        Account account = accounts.get(random.nextInt(accounts.size()));
+        switch (operation) {
+            case DEPOSIT:
+                transactionService.deposit(account, MoneyUtil.ofDh(1 + random.nextInt(24_000)), "load");
+                break;
+            case WITHDRAW:
+                transactionService.withdraw(account, MoneyUtil.ofDh(1 + random.nextInt(12_000)), "load");
+                break;
+            case TRANSFER:
+                Account destination;
+                do {
+                    destination = accounts.get(random.nextInt(accounts.size()));
+                } while (destination == account && accounts.size() > 1);
+                transactionService.transfer(account, destination, MoneyUtil.ofDh(1 + random.nextInt(36_000)), "load");
+                break;
+            case HISTORY:
+                transactionService.filterTransactions(account.getClient(),
+                    new TransactionQuery().sortBy(TransactionQuery.Sort.DATE_DESC).page(0, HISTORY_PAGE));
+                break;
+            case STATISTICS:
+                readStatistics();
+                break;
+        }
+    }
+
+    // the reads BankerController.displayStatistics makes
+    private void readStatistics() {
+        clientService.listClients();
+        accountService.getTotalAccountCount();
+        accountService.getTotalSystemBalance();
+        accountService.getAverageAccountBalance();
+        transactionService.getDepositCount();
+        transactionService.getWithdrawalCount();
+        transactionService.getTransferCount();
+        transactionService.getTotalTransactionCount();
+        transactionService.getTotalSystemDeposits();
+        transactionService.getTotalSystemWithdrawals();
+        transactionService.getTotalSystemTransfers();
+    }
+
+    private void report(int threads, double seconds) {
+        System.out.printf("%n%d threads, %.1f s measured%n%n", threads, seconds);
+        System.out.printf("%-11s %10s %10s %9s %9s %9s %9s %9s  %7s  %s%n", "operation", "calls", "ops/s",
+            "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "errors", "by cause");
+        long totalCalls = 0;
+        for (Operation operation : operations) {
+            OperationStats operationStats = stats[operation.ordinal()];
+            long calls = operationStats.calls();
+            totalCalls += calls;
+            long errors = calls - operationStats.outcomes[Outcome.OK.ordinal()].sum();
+
+            StringBuilder line = new StringBuilder(String.format("%-11s %10d %10.0f", operation.name().toLowerCase(),
+                calls, calls / seconds));
+            for (double percentile : PERCENTILES) {
+                line.append(String.format(" %9.1f", operationStats.latency.valueAtPercentile(percentile) / 1e3));
+            }
+            line.append(String.format(" %9.1f  %6.2f%% ", operationStats.latency.max() / 1e3,
+                calls == 0 ? 0.0 : 100.0 * errors / calls));
+            for (Outcome outcome : Outcome.values()) {
+                long count = operationStats.outcomes[outcome.ordinal()].sum();
+                if (outcome != Outcome.OK && count > 0) {
+                    line.append(String.format(" %s %.2f%%", outcome.name().toLowerCase(), 100.0 * count / calls));
+                }
+            }
+            System.out.println(line);
+        }
+        System.out.printf("%n%d calls, %.0f ops/s overall%n", totalCalls, totalCalls / seconds);
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository lookups on a bank whose ledger holds `rows` transactions (and rows / 10 clients and
+ * accounts): clients by id and by email, accounts by id, and an account's transactions, which
+ * copies about 2 * ROWS_PER_ACCOUNT rows. Keys are picked at random, so most of them miss the CPU
+ * caches once the bank is large. Each lookup also runs on THREADS threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class LookupBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    private BankFixture bank;
+
+    @Setup
+    public void setUp() {
+        bank = new BankFixture(rows);
+    }
+
+    @Benchmark
+    public Optional<Client> findClientById() {
+        return bank.clientRepository.findById(bank.randomClient().getClientId());
+    }
+
+    @Benchmark
+    public Optional<Client> findClientByEmail() {
+        return bank.clientRepository.findByEmail(bank.randomClient().getEmail());
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountById() {
+        return bank.accountRepository.findById(bank.randomAccount().getAccountId());
+    }
+
+    @Benchmark
+    public List<Transaction> findByAccountId() {
+        return bank.transactionRepository.findByAccountId(bank.randomAccount().getAccountId());
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public Optional<Client> findClientByIdParallel() {
+        return findClientById();
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public Optional<Client> findClientByEmailParallel() {
+        return findClientByEmail();
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public Optional<Account> findAccountByIdParallel() {
+        return findAccountById();
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public List<Transaction> findByAccountIdParallel() {
+        return findByAccountId();
+    }
+}
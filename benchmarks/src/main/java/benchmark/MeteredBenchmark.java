@@ -0,0 +1,104 @@
+package benchmark;
+
+import metrics.MeteredAccountRepository;
+import metrics.MeteredClientRepository;
+import metrics.MeteredTransactionRepository;
+import metrics.MeteredTransactionService;
+import metrics.MetricsRegistry;
+import model.Account;
+import model.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.journal.Journal;
+import service.TransactionService;
+import util.MoneyUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same lookups, and lookups mixed with postings, run straight against the bank and through
+ * the metered decorators HomeController uses. The metered runs go through many metered call sites
+ * per operation, as the application does. The gap in gc.alloc.rate.norm between a plain run and
+ * its metered twin is what metering allocates per operation and should stay at zero. Postings
+ * allocate in bursts when the ledger index is rebuilt, so compare them over long runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class MeteredBenchmark {
+    private static final long AMOUNT = MoneyUtil.ofDh(10);
+
+    @Param({"100000"})
+    int rows;
+
+    private BankFixture bank;
+    private ClientRepository meteredClients;
+    private AccountRepository meteredAccounts;
+    private TransactionService meteredTransactions;
+
+    @Setup
+    public void setUp() {
+        bank = new BankFixture(rows);
+        MetricsRegistry registry = new MetricsRegistry("benchmark");
+        meteredClients = new MeteredClientRepository(bank.clientRepository, registry);
+        meteredAccounts = new MeteredAccountRepository(bank.accountRepository, registry);
+        meteredTransactions = new MeteredTransactionService(new MeteredTransactionRepository(bank.transactionRepository, registry),
+            meteredAccounts, Journal.NONE, bank.statistics, registry);
+    }
+
+    @Benchmark
+    public void lookups(Blackhole blackhole) {
+        lookups(bank.clientRepository, bank.accountRepository, bank.transactionService, blackhole);
+    }
+
+    @Benchmark
+    public void meteredLookups(Blackhole blackhole) {
+        lookups(meteredClients, meteredAccounts, meteredTransactions, blackhole);
+    }
+
+    @Benchmark
+    public void postings(Blackhole blackhole) {
+        lookups(bank.clientRepository, bank.accountRepository, bank.transactionService, blackhole);
+        post(bank.transactionService);
+    }
+
+    @Benchmark
+    public void meteredPostings(Blackhole blackhole) {
+        lookups(meteredClients, meteredAccounts, meteredTransactions, blackhole);
+        post(meteredTransactions);
+    }
+
+    private void lookups(ClientRepository clients, AccountRepository accounts, TransactionService transactions,
+                         Blackhole blackhole) {
+        Client client = bank.randomClient();
+        Account account = bank.randomAccount();
+        blackhole.consume(clients.findById(client.getClientId()));
+        blackhole.consume(clients.findByEmail(client.getEmail()));
+        blackhole.consume(accounts.findById(account.getAccountId()));
+        blackhole.consume(accounts.findByClient(client));
+        blackhole.consume(transactions.getTotalSystemDeposits());
+        blackhole.consume(transactions.getTransferCount());
+    }
+
+    private void post(TransactionService transactions) {
+        Account account = bank.randomAccount();
+        transactions.deposit(account, AMOUNT, "Deposit");
+        transactions.withdraw(account, AMOUNT, "Withdraw");
+        transactions.transfer(account, bank.otherAccount(account), AMOUNT, "Transfer");
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import util.MoneyUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * deposit, withdraw and transfer through TransactionService on a bank whose ledger already holds
+ * `rows` transactions, on one thread and on THREADS threads posting to random accounts. Every call
+ * adds a row, so the ledger grows by what a trial posts; the journal is off, so this measures
+ * validation, locking, storage, statistics and fraud evaluation, not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class PostingBenchmark {
+    static final int THREADS = 4;
+    private static final long AMOUNT = MoneyUtil.ofDh(100);
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    private BankFixture bank;
+
+    @Setup
+    public void setUp() {
+        bank = new BankFixture(rows);
+    }
+
+    @Benchmark
+    public void deposit() {
+        bank.transactionService.deposit(bank.randomAccount(), AMOUNT, "bench");
+    }
+
+    @Benchmark
+    public void withdraw() {
+        bank.transactionService.withdraw(bank.randomAccount(), AMOUNT, "bench");
+    }
+
+    @Benchmark
+    public void transfer() {
+        Account source = bank.randomAccount();
+        bank.transactionService.transfer(source, bank.otherAccount(source), AMOUNT, "bench");
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public void depositParallel() {
+        deposit();
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public void withdrawParallel() {
+        withdraw();
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public void transferParallel() {
+        transfer();
+    }
+}
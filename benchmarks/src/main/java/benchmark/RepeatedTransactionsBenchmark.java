@@ -0,0 +1,110 @@
+package benchmark;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.InMemoryImpl.InMemoryAccountRepository;
+import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.TransactionRepository;
+import repository.journal.Journal;
+import service.SystemStatistics;
+import service.TransactionService;
+import util.MoneyUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * getRepeatedTransactions on primitive group keys against the String-keyed groupingBy it
+ * replaced (kept below as the baseline). The ledger spreads rows over a few thousand clients and
+ * a small set of round amounts, so most groups repeat. The GC profiler BenchmarkMain adds compares allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepeatedTransactionsBenchmark {
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private TransactionRepository transactionRepository;
+    private TransactionService transactionService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int clientCount = Math.max(rows / 500, 10);
+        List<Account> accounts = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            Client client = new Client("First" + i, "Last" + i, "client" + i + "@bank.ma", "secret", UUID.randomUUID(), new ArrayList<>());
+            Account account = new Account(UUID.randomUUID(), TypeAccount.CHECKING, 0, new ArrayList<>(), client);
+            client.getAccounts().add(account);
+            accounts.add(account);
+        }
+
+        transactionRepository = new InMemoryTransactionRepository();
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            Account source = accounts.get(random.nextInt(clientCount));
+            TypeTransaction type = TYPES[random.nextInt(TYPES.length)];
+            Account destination = type == TypeTransaction.TRANSFER ? accounts.get(random.nextInt(clientCount)) : null;
+            transactionRepository.save(new Transaction(UUID.randomUUID(), type, MoneyUtil.ofDh(100L * (1 + random.nextInt(50))),
+                date.plusSeconds(i), type.name(), source, destination));
+        }
+        transactionService = new TransactionService(transactionRepository, new InMemoryAccountRepository(), Journal.NONE,
+            new SystemStatistics());
+    }
+
+    @Benchmark
+    public List<Transaction> primitiveKeys() {
+        return transactionService.getRepeatedTransactions(TransactionService.REPEATED_MIN_OCCURRENCES);
+    }
+
+    @Benchmark
+    public List<Transaction> stringKeysBaseline() {
+        return stringKeyRepeatedTransactions(transactionRepository.findAll(), TransactionService.REPEATED_MIN_OCCURRENCES);
+    }
+
+    // the implementation getRepeatedTransactions had before switching to primitive keys
+    static List<Transaction> stringKeyRepeatedTransactions(List<Transaction> allTransactions, int minOccurrences) {
+        List<Transaction> repeatedTransactions = new ArrayList<>();
+
+        Map<String, List<Transaction>> groupedTransactions = allTransactions.stream()
+                .filter(t -> t.getSourceAccount() != null && t.getSourceAccount().getClient() != null)
+                .collect(Collectors.groupingBy(t ->
+                    t.getSourceAccount().getClient().getClientId() + "|" +
+                    t.getTransactionType() + "|" +
+                    t.getAmount()
+                ));
+
+        for (List<Transaction> group : groupedTransactions.values()) {
+            if (group.size() > minOccurrences) {
+                repeatedTransactions.addAll(group);
+            }
+        }
+        return repeatedTransactions;
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import service.SystemStatistics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The banker's reads on a bank whose ledger holds `rows` transactions: the suspicious transaction
+ * list, the dashboard statistics (everything displayStatistics shows), a client's totals, and, for
+ * comparison, rebuilding the statistics from scratch as recovery does, which walks the whole ledger.
+ * The reads also run on THREADS threads, as several bankers would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class SuspiciousAndStatisticsBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    private BankFixture bank;
+    private List<Account> accounts;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        bank = new BankFixture(rows);
+        accounts = bank.accountRepository.findAll();
+        transactions = bank.transactionRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Transaction> getSuspiciousTransactions() {
+        return bank.transactionService.getSuspiciousTransactions();
+    }
+
+    @Benchmark
+    public void systemStatistics(Blackhole blackhole) {
+        blackhole.consume(bank.transactionService.getTotalTransactionCount());
+        blackhole.consume(bank.transactionService.getDepositCount());
+        blackhole.consume(bank.transactionService.getWithdrawalCount());
+        blackhole.consume(bank.transactionService.getTransferCount());
+        blackhole.consume(bank.transactionService.getTotalSystemDeposits());
+        blackhole.consume(bank.transactionService.getTotalSystemWithdrawals());
+        blackhole.consume(bank.transactionService.getTotalSystemTransfers());
+        blackhole.consume(bank.accountService.getTotalAccountCount());
+        blackhole.consume(bank.accountService.getTotalSystemBalance());
+        blackhole.consume(bank.accountService.getAverageAccountBalance());
+    }
+
+    @Benchmark
+    public void clientTotals(Blackhole blackhole) {
+        Client client = bank.randomClient();
+        blackhole.consume(bank.transactionService.totalDeposits(client));
+        blackhole.consume(bank.transactionService.totalWithdrawals(client));
+        blackhole.consume(bank.transactionService.totalTransfers(client));
+    }
+
+    @Benchmark
+    public SystemStatistics rebuildStatistics() {
+        SystemStatistics statistics = new SystemStatistics();
+        statistics.rebuild(accounts, transactions);
+        return statistics;
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public List<Transaction> getSuspiciousTransactionsParallel() {
+        return getSuspiciousTransactions();
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public void systemStatisticsParallel(Blackhole blackhole) {
+        systemStatistics(blackhole);
+    }
+
+    @Benchmark
+    @Threads(PostingBenchmark.THREADS)
+    public void clientTotalsParallel(Blackhole blackhole) {
+        clientTotals(blackhole);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import model.Account;
+import model.Client;
+import model.enums.TypeAccount;
+import repository.InMemoryImpl.InMemoryAccountRepository;
+import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.journal.Journal;
+import service.SystemStatistics;
+import service.TransactionService;
+import util.MoneyUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfer throughput under contention at 1, 4, 16 and 64 threads, for two account layouts:
+ * "disjoint" gives each thread its own pair of accounts, "shared" makes every thread transfer
+ * in both directions between a handful of hot accounts. After each run the total balance is
+ * checked, which catches lost updates and overdrafts.
+ *
+ * Usage: TransferContentionBenchmark [secondsPerRun]
+ */
+public class TransferContentionBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final int HOT_ACCOUNTS = 4;
+    private static final long INITIAL_BALANCE = MoneyUtil.ofDh(1_000_000);
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 3;
+
+        System.out.printf("%-9s %8s %15s %12s%n", "layout", "threads", "transfers/s", "balance ok");
+        for (boolean shared : new boolean[]{false, true}) {
+            for (int threads : THREAD_COUNTS) {
+                run(shared, threads, seconds);
+            }
+        }
+    }
+
+    private static void run(boolean shared, int threads, long seconds) throws InterruptedException {
+        TransactionService service = new TransactionService(new InMemoryTransactionRepository(), new InMemoryAccountRepository(),
+            Journal.NONE, new SystemStatistics());
+        List<Account> accounts = new ArrayList<>();
+        int accountCount = shared ? HOT_ACCOUNTS : threads * 2;
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(newAccount());
+        }
+
+        LongAdder completed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    Account source;
+                    Account destination;
+                    if (shared) {
+                        int a = random.nextInt(HOT_ACCOUNTS);
+                        int b = (a + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+                        source = accounts.get(a);
+                        destination = accounts.get(b);
+                    } else {
+                        boolean forward = random.nextBoolean();
+                        source = accounts.get(worker * 2 + (forward ? 0 : 1));
+                        destination = accounts.get(worker * 2 + (forward ? 1 : 0));
+                    }
+                    service.transfer(source, destination, MoneyUtil.ofDh(1 + random.nextInt(100)), "bench");
+                    completed.increment();
+                }
+            });
+            workers.add(thread);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        long total = accounts.stream().mapToLong(Account::getBalance).sum();
+        boolean balanced = total == accountCount * INITIAL_BALANCE
+            && accounts.stream().allMatch(account -> account.getBalance() >= 0);
+        System.out.printf("%-9s %8d %15.0f %12s%n", shared ? "shared" : "disjoint", threads, completed.sum() / elapsed, balanced);
+    }
+
+    private static Account newAccount() {
+        Client client = new Client("Bench", "Client", UUID.randomUUID() + "@bench.local", "password",
+            UUID.randomUUID(), new ArrayList<>());
+        Account account = new Account(UUID.randomUUID(), TypeAccount.CHECKING, INITIAL_BALANCE, new ArrayList<>(), client);
+        client.getAccounts().add(account);
+        return account;
+    }
+}
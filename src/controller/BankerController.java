@@ -4,26 +4,48 @@ import model.Account;
 import model.Client;
 import model.Transaction;
 import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import repository.TransactionQuery;
 import service.AccountService;
+import service.BulkImportService;
 import service.ClientService;
+import service.ExportService;
+import service.ImportReport;
 import service.TransactionService;
-
+import service.fraud.FraudAlert;
+import service.fraud.FraudRule;
+import util.DateUtil;
+import util.InputUtil;
+import util.MoneyUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BankerController {
 
     private final ClientService clientService;
     private final AccountService accountService;
     private final TransactionService transactionService;
+    private final ExportService exportService;
+    private final BulkImportService bulkImportService;
 
-    public BankerController(ClientService clientService, AccountService accountService, TransactionService transactionService) {
+    public BankerController(ClientService clientService, AccountService accountService, TransactionService transactionService,
+                            ExportService exportService, BulkImportService bulkImportService) {
         this.clientService = clientService;
         this.accountService = accountService;
         this.transactionService = transactionService;
+        this.exportService = exportService;
+        this.bulkImportService = bulkImportService;
     }
 
     public void addNewClientWithAccount(String firstName, String lastName, String email, String password,
-                                          TypeAccount accountType, double initialBalance) {
+                                          TypeAccount accountType, long initialBalance) {
         try {
             // Create new client first
             Client newClient = clientService.createClient(firstName, lastName, email, password);
@@ -39,7 +61,7 @@ public class BankerController {
 
             System.out.println("\nAccount Details:");
             System.out.println("  Account Type: " + newAccount.getAccountType());
-            System.out.println("  Initial Balance: DH" + String.format("%.2f", newAccount.getBalance()));
+            System.out.println("  Initial Balance: DH" + MoneyUtil.format(newAccount.getBalance()));
 
         } catch (IllegalArgumentException e) {
             System.out.println("\nError: " + e.getMessage());
@@ -48,6 +70,40 @@ public class BankerController {
         }
     }
 
+    // loads clients, then accounts, then historical transactions from CSV files; a blank path skips a file
+    public void bulkImport() {
+        String clients = InputUtil.readString("Clients CSV (first_name,last_name,email,password), blank to skip:");
+        String accounts = InputUtil.readString("Accounts CSV (account_id,email,account_type,balance), blank to skip:");
+        String transactions = InputUtil.readString("Transactions CSV (export format), blank to skip:");
+        try {
+            if (!clients.isEmpty()) {
+                printImportReport(bulkImportService.importClients(Path.of(clients)));
+            }
+            if (!accounts.isEmpty()) {
+                printImportReport(bulkImportService.importAccounts(Path.of(accounts)));
+            }
+            if (!transactions.isEmpty()) {
+                printImportReport(bulkImportService.importTransactions(Path.of(transactions)));
+            }
+        } catch (IOException e) {
+            System.out.println("\nImport failed: " + e.getMessage());
+        }
+    }
+
+    private void printImportReport(ImportReport report) {
+        System.out.printf("%n%s from %s: %d of %d row(s) imported, %d rejected, %d duplicate(s)%n",
+            report.getKind(), report.getFile(), report.getImported(), report.getRows(),
+            report.getRejected(), report.getDuplicates());
+        System.out.printf("  %.1f MB in %.2f s (%.0f rows/s, %.1f MB/s)%n", report.getBytes() / (1024.0 * 1024.0),
+            report.getElapsedNanos() / 1e9, report.rowsPerSecond(), report.megabytesPerSecond());
+        for (String problem : report.getProblems()) {
+            System.out.println("  " + problem);
+        }
+        if (report.getUnlistedProblems() > 0) {
+            System.out.println("  ... and " + report.getUnlistedProblems() + " more");
+        }
+    }
+
     public void viewAllClients() {
         List<Client> clients = clientService.listClients();
 
@@ -119,13 +175,13 @@ public class BankerController {
 
             // Account Statistics
             int totalAccounts = accountService.getTotalAccountCount();
-            double totalSystemBalance = accountService.getTotalSystemBalance();
-            double averageBalance = accountService.getAverageAccountBalance();
+            long totalSystemBalance = accountService.getTotalSystemBalance();
+            long averageBalance = accountService.getAverageAccountBalance();
 
             System.out.println("\n•ACCOUNT STATISTICS:");
             System.out.println("   Total Accounts: " + totalAccounts);
-            System.out.println("   Total System Balance: " + String.format("%.2f DH", totalSystemBalance));
-            System.out.println("   Average Account Balance: " + String.format("%.2f DH", averageBalance));
+            System.out.println("   Total System Balance: " + MoneyUtil.format(totalSystemBalance) + " DH");
+            System.out.println("   Average Account Balance: " + MoneyUtil.format(averageBalance) + " DH");
 
             // Transaction Statistics - Counts
             int depositCount = transactionService.getDepositCount();
@@ -140,14 +196,14 @@ public class BankerController {
             System.out.println("   Total Transactions: " + totalTransactions);
 
             // Transaction Statistics - Amounts
-            double totalDeposits = transactionService.getTotalSystemDeposits();
-            double totalWithdrawals = transactionService.getTotalSystemWithdrawals();
-            double totalTransfers = transactionService.getTotalSystemTransfers();
+            long totalDeposits = transactionService.getTotalSystemDeposits();
+            long totalWithdrawals = transactionService.getTotalSystemWithdrawals();
+            long totalTransfers = transactionService.getTotalSystemTransfers();
 
             System.out.println("\n•TRANSACTION AMOUNTS:");
-            System.out.println("   Total Deposits: " + String.format("%.2f DH", totalDeposits));
-            System.out.println("   Total Withdrawals: " + String.format("%.2f DH", totalWithdrawals));
-            System.out.println("   Total Transfers: " + String.format("%.2f DH", totalTransfers));
+            System.out.println("   Total Deposits: " + MoneyUtil.format(totalDeposits) + " DH");
+            System.out.println("   Total Withdrawals: " + MoneyUtil.format(totalWithdrawals) + " DH");
+            System.out.println("   Total Transfers: " + MoneyUtil.format(totalTransfers) + " DH");
 
             System.out.println("\n" + "=" .repeat(50));
 
@@ -157,67 +213,86 @@ public class BankerController {
     }
 
 
-    // Display all transactions in the system
+    // Display all transactions in the system, newest first, one page at a time
     public void viewAllTransactions() {
         try {
-            List<Transaction> allTransactions = transactionService.getAllTransactions();
+            String title = "All System Transactions (" + transactionService.getTotalTransactionCount() + ")";
+            TransactionQuery newestFirst = new TransactionQuery().sortBy(TransactionQuery.Sort.DATE_DESC);
+            new TransactionPager(title, newestFirst, transactionService::queryLedger, true).browse();
+        } catch (Exception e) {
+            System.out.println("Error retrieving transactions: " + e.getMessage());
+        }
+    }
 
-            System.out.println("\n=== All System Transactions ===");
+    // Export the whole ledger, optionally for a date range, to a CSV or JSON file
+    public void exportLedger() {
+        System.out.println("\n=== Export Ledger ===");
+        ExportPrompt.run("ledger", exportService::exportLedger);
+    }
 
-            if (allTransactions.isEmpty()) {
-                System.out.println("No transactions found in the system.");
-                return;
+    // Search the whole ledger by type, amount range and date range; the repository picks the index
+    public void searchTransactions() {
+        try {
+            System.out.println("\n=== Search Transactions ===");
+            System.out.println("Type: 0. Any  1. Deposit  2. Withdrawal  3. Transfer");
+            int typeChoice = InputUtil.readInt("Choose type:");
+            TransactionQuery query = new TransactionQuery();
+            switch (typeChoice) {
+                case 0:
+                    break;
+                case 1:
+                    query.types(TypeTransaction.DEPOSIT);
+                    break;
+                case 2:
+                    query.types(TypeTransaction.WITHDRAWAL);
+                    break;
+                case 3:
+                    query.types(TypeTransaction.TRANSFER);
+                    break;
+                default:
+                    System.out.println("Invalid type selection.");
+                    return;
             }
 
-            // Sort transactions by date (newest first)
-            allTransactions.sort((t1, t2) -> t2.getDate().compareTo(t1.getDate()));
-
-            System.out.println("\n# | Type       | Amount     | Client               | Recipient            | Description           | Date");
-            System.out.println("--|------------|------------|----------------------|----------------------|-----------------------|--------------------");
-
-            for (int i = 0; i < allTransactions.size(); i++) {
-                Transaction t = allTransactions.get(i);
-
-                // Get client name from source account
-                String clientName = "-";
-                if (t.getSourceAccount() != null && t.getSourceAccount().getClient() != null) {
-                    Client client = t.getSourceAccount().getClient();
-                    clientName = client.getFirstName() + " " + client.getLastName();
-                    if (clientName.length() > 20) {
-                        clientName = clientName.substring(0, 17) + "...";
-                    }
-                }
-
-                // Get recipient name for transfers
-                String recipient = "-";
-                if (t.getTransactionType().toString().equals("TRANSFER")) {
-                    if (t.getDestinationAccount() != null && t.getDestinationAccount().getClient() != null) {
-                        Client recipientClient = t.getDestinationAccount().getClient();
-                        recipient = recipientClient.getFirstName() + " " + recipientClient.getLastName();
-                        if (recipient.length() > 20) {
-                            recipient = recipient.substring(0, 17) + "...";
-                        }
-                    }
-                }
-
-                System.out.printf("%-2d| %-10s | %10.2f | %-20s | %-20s | %-21s | %s%n",
-                    i + 1,
-                    t.getTransactionType(),
-                    t.getAmount(),
-                    clientName,
-                    recipient,
-                    t.getDescription().length() > 21 ? t.getDescription().substring(0, 18) + "..." : t.getDescription(),
-                    util.DateUtil.formatDateTime(t.getDate())
-                );
+            String min = InputUtil.readString("Minimum amount (blank for none):");
+            String max = InputUtil.readString("Maximum amount (blank for none):");
+            query.amountBetween(min.isEmpty() ? Long.MIN_VALUE : MoneyUtil.parse(min),
+                max.isEmpty() ? Long.MAX_VALUE : MoneyUtil.parse(max));
+
+            String from = InputUtil.readString("From date dd/mm/yyyy (blank for none):");
+            String to = InputUtil.readString("To date dd/mm/yyyy (blank for none):");
+            LocalDateTime fromDate = from.isEmpty() ? null : DateUtil.parseDate(from).atStartOfDay();
+            LocalDateTime toDate = to.isEmpty() ? null : endOfDay(DateUtil.parseDate(to));
+            query.dateBetween(fromDate, toDate);
+
+            System.out.println("Sort: 1. Newest first  2. Oldest first  3. Largest amount  4. Smallest amount");
+            int sortChoice = InputUtil.readInt("Choose sort:");
+            switch (sortChoice) {
+                case 2:
+                    query.sortBy(TransactionQuery.Sort.DATE_ASC);
+                    break;
+                case 3:
+                    query.sortBy(TransactionQuery.Sort.AMOUNT_DESC);
+                    break;
+                case 4:
+                    query.sortBy(TransactionQuery.Sort.AMOUNT_ASC);
+                    break;
+                default:
+                    query.sortBy(TransactionQuery.Sort.DATE_DESC);
             }
+            new TransactionPager("Search Results", query, transactionService::queryLedger, true).browse();
 
-            System.out.println("\nTotal transactions: " + allTransactions.size());
-
-        } catch (Exception e) {
-            System.out.println("Error retrieving transactions: " + e.getMessage());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid amount, use at most 2 decimals.");
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date, use dd/mm/yyyy.");
         }
     }
 
+    private static LocalDateTime endOfDay(LocalDate date) {
+        return date.plusDays(1).atStartOfDay().minusNanos(1);
+    }
+
     // Display transactions for a specific client selected by the banker
     public void viewClientTransactions() {
         try {
@@ -259,50 +334,13 @@ public class BankerController {
 
             // Get selected client
             Client selectedClient = clients.get(choice - 1);
-            List<Transaction> clientTransactions = transactionService.getTransactions(selectedClient);
-
-            System.out.println("\n=== Transactions for " + selectedClient.getFirstName() + " " +
-                selectedClient.getLastName() + " ===");
-
-            if (clientTransactions.isEmpty()) {
-                System.out.println("No transactions found for this client.");
-                return;
-            }
-
-            System.out.println("\n# | Type       | Amount     | Recipient            | Description           | Date");
-            System.out.println("--|------------|------------|----------------------|-----------------------|--------------------");
-
-            for (int i = 0; i < clientTransactions.size(); i++) {
-                Transaction t = clientTransactions.get(i);
-
-                // Get recipient for transfers
-                String recipient = "-";
-                if (t.getTransactionType().toString().equals("TRANSFER")) {
-                    if (t.getDestinationAccount() != null && t.getDestinationAccount().getClient() != null) {
-                        Client recipientClient = t.getDestinationAccount().getClient();
-                        recipient = recipientClient.getFirstName() + " " + recipientClient.getLastName();
-                        if (recipient.length() > 20) {
-                            recipient = recipient.substring(0, 17) + "...";
-                        }
-                    }
-                }
+            String title = "Transactions for " + selectedClient.getFirstName() + " " + selectedClient.getLastName();
+            new TransactionPager(title, new TransactionQuery(),
+                query -> transactionService.filterTransactions(selectedClient, query), false).browse();
 
-                System.out.printf("%-2d| %-10s | %10.2f | %-20s | %-21s | %s%n",
-                    i + 1,
-                    t.getTransactionType(),
-                    t.getAmount(),
-                    recipient,
-                    t.getDescription().length() > 21 ? t.getDescription().substring(0, 18) + "..." : t.getDescription(),
-                    util.DateUtil.formatDateTime(t.getDate())
-                );
-            }
-
-            System.out.println("\nTotal transactions for this client: " + clientTransactions.size());
-
-            // Show client account balance
-            if (!selectedClient.getAccounts().isEmpty()) {
-                double balance = selectedClient.getAccounts().get(0).getBalance();
-                System.out.println("Current account balance: " + String.format("%.2f DH", balance));
+            // Show the balance of each of the client's accounts
+            for (Account account : selectedClient.getAccounts()) {
+                System.out.println(account.getAccountType() + " account balance: " + MoneyUtil.format(account.getBalance()) + " DH");
             }
 
         } catch (Exception e) {
@@ -313,13 +351,12 @@ public class BankerController {
     // Display suspicious transactions with categorization
     public void viewSuspiciousTransactions() {
         try {
-            List<Transaction> suspiciousTransactions = transactionService.getSuspiciousTransactions();
-            List<Transaction> largeAmountTransactions = transactionService.getLargeAmountTransactions(10000.0);
-            List<Transaction> repeatedTransactions = transactionService.getRepeatedTransactions(3);
+            // alerts are raised at posting time and carry their reasons, nothing is recomputed here
+            List<FraudAlert> alerts = transactionService.getSuspiciousAlerts();
 
             System.out.println("\n=== Suspicious Transactions Report ===");
 
-            if (suspiciousTransactions.isEmpty()) {
+            if (alerts.isEmpty()) {
                 System.out.println("\nNo suspicious transactions found.");
                 return;
             }
@@ -327,8 +364,11 @@ public class BankerController {
             System.out.println("\n# | Type       | Amount     | Client               | Recipient            | Description           | Date                | Reason");
             System.out.println("--|------------|------------|----------------------|----------------------|-----------------------|---------------------|------------------");
 
-            for (int i = 0; i < suspiciousTransactions.size(); i++) {
-                Transaction t = suspiciousTransactions.get(i);
+            // alerts per reason, in order of first appearance
+            Map<String, Integer> reasonCounts = new LinkedHashMap<>();
+            for (int i = 0; i < alerts.size(); i++) {
+                FraudAlert alert = alerts.get(i);
+                Transaction t = alert.getTransaction();
 
                 // Get client name from source account
                 String clientName = "-";
@@ -352,35 +392,34 @@ public class BankerController {
                     }
                 }
 
-                // Determine reason for being suspicious
-                String reason = "";
-                if (largeAmountTransactions.contains(t)) {
-                    reason = "Large Amount";
-                }
-                if (repeatedTransactions.contains(t)) {
-                    if (!reason.isEmpty()) {
-                        reason += " + Repeated";
-                    } else {
-                        reason = "Repeated Pattern";
-                    }
+                for (String reason : alert.getReasons()) {
+                    reasonCounts.merge(reason, 1, Integer::sum);
                 }
 
-                System.out.printf("%-2d| %-10s | %10.2f | %-20s | %-20s | %-21s | %-19s | %s%n",
+                System.out.printf("%-2d| %-10s | %10s | %-20s | %-20s | %-21s | %-19s | %s%n",
                     i + 1,
                     t.getTransactionType(),
-                    t.getAmount(),
+                    MoneyUtil.format(t.getAmount()),
                     clientName,
                     recipient,
                     t.getDescription().length() > 21 ? t.getDescription().substring(0, 18) + "..." : t.getDescription(),
                     util.DateUtil.formatDateTime(t.getDate()),
-                    reason
+                    alert.getReason()
                 );
             }
 
             System.out.println("\nSuspicious Transaction Summary:");
-            System.out.println("  • Large Amount (>10,000 DH): " + largeAmountTransactions.size() + " transactions");
-            System.out.println("  • Repeated Patterns (>3 times): " + repeatedTransactions.size() + " transactions");
-            System.out.println("  • Total Suspicious: " + suspiciousTransactions.size() + " transactions");
+            for (Map.Entry<String, Integer> entry : reasonCounts.entrySet()) {
+                System.out.println("  • " + entry.getKey() + ": " + entry.getValue() + " transactions");
+            }
+            System.out.println("  • Total Suspicious: " + alerts.size() + " transactions");
+
+            System.out.println("\nRule Activity:");
+            for (FraudRule rule : transactionService.getFraudRules()) {
+                System.out.printf("  • %-20s (%s)%n      evaluated %d, passed conditions %d, fired %d, ~%.0f ns/evaluation%n",
+                    rule.getName(), rule.getDescription(),
+                    rule.getEvaluated(), rule.getMatched(), rule.getFired(), rule.getAverageNanos());
+            }
 
         } catch (Exception e) {
             System.out.println("Error retrieving suspicious transactions: " + e.getMessage());
@@ -5,6 +5,8 @@ import model.Account;
 import model.Client;
 import service.ClientService;
 
+import java.util.List;
+
 public class ClientController {
 
     private final ClientService clientService;
@@ -13,10 +15,10 @@ public class ClientController {
         this.clientService = clientService;
     }
 
-    // Helper method to get client first found account
-    public Account getPrimaryAccount() {
+    // All accounts of the logged in client
+    public List<Account> getAccounts() {
         Client currentClient = (Client) HomeController.getCurrentUser();
-        return currentClient.getAccounts().get(0);
+        return currentClient.getAccounts();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package controller;
+
+import service.ExportService;
+import util.DateUtil;
+import util.InputUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Console steps shared by the statement and ledger exports: format, date range, file, then a throughput report
+final class ExportPrompt {
+
+    interface Export {
+        long run(Path file, ExportService.Format format, LocalDateTime from, LocalDateTime to) throws IOException;
+    }
+
+    private ExportPrompt() {
+    }
+
+    static void run(String defaultName, Export export) {
+        try {
+            System.out.println("Format: 1. CSV  2. JSON");
+            int formatChoice = InputUtil.readInt("Choose format:");
+            if (formatChoice != 1 && formatChoice != 2) {
+                System.out.println("Invalid format selection.");
+                return;
+            }
+            ExportService.Format format = formatChoice == 1 ? ExportService.Format.CSV : ExportService.Format.JSON;
+
+            String from = InputUtil.readString("From date dd/mm/yyyy (blank for none):");
+            String to = InputUtil.readString("To date dd/mm/yyyy (blank for none):");
+            LocalDateTime fromDate = from.isEmpty() ? null : DateUtil.parseDate(from).atStartOfDay();
+            LocalDateTime toDate = to.isEmpty() ? null : DateUtil.parseDate(to).plusDays(1).atStartOfDay().minusNanos(1);
+
+            String extension = format == ExportService.Format.CSV ? ".csv" : ".json";
+            String name = InputUtil.readString("File (blank for exports/" + defaultName + extension + "):");
+            Path file = Path.of(name.isEmpty() ? "exports/" + defaultName + extension : name);
+
+            long start = System.nanoTime();
+            long rows = export.run(file, format, fromDate, toDate);
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+            double megabytes = Files.size(file) / (1024.0 * 1024.0);
+            System.out.printf("%nExported %d transaction(s) to %s: %.1f MB in %.2f s (%.0f MB/s)%n",
+                rows, file.toAbsolutePath(), megabytes, seconds, megabytes / seconds);
+
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date, use dd/mm/yyyy.");
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+}
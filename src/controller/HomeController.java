@@ -1,39 +1,97 @@
 package controller;
 
 import exceptions.AccountNotFoundException;
+import metrics.MeteredAccountRepository;
+import metrics.MeteredAuthService;
+import metrics.MeteredClientRepository;
+import metrics.MeteredTransactionRepository;
+import metrics.MeteredTransactionService;
+import metrics.MetricsRegistry;
 import model.Client;
 import model.Person;
 import model.enums.Role;
+import repository.AccountRepository;
+import repository.ClientRepository;
 import repository.InMemoryImpl.InMemoryAccountRepository;
 import repository.InMemoryImpl.InMemoryClientRepository;
 import repository.InMemoryImpl.InMemoryTransactionRepository;
+import repository.TransactionRepository;
+import repository.journal.FileJournal;
+import repository.journal.Journal;
 import service.AccountService;
 import service.AuthService;
+import service.BulkImportService;
 import service.ClientService;
+import service.ExportService;
+import service.SystemStatistics;
+import service.CheckpointService;
 import service.TransactionService;
 import util.ValidatorUtil;
 import view.BankerView;
 import view.ClientView;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Optional;
 
 public class HomeController {
-    private static final InMemoryClientRepository clientRepository = new InMemoryClientRepository();
-    private static final InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
-    private static final InMemoryTransactionRepository transactionRepository = new InMemoryTransactionRepository();
-    private static final AuthService authService = new AuthService(clientRepository);
-    private static final ClientService clientService = new ClientService(clientRepository, authService);
-    private static final AccountService accountService = new AccountService(accountRepository);
-    private static final TransactionService transactionService = new TransactionService(transactionRepository, accountRepository);
-    private static final BankerController bankerController = new BankerController(clientService, accountService, transactionService);
+    // latency and call counts of logins, postings, queries and repository calls, published over JMX under bank:*
+    private static final MetricsRegistry metrics = new MetricsRegistry("bank");
+    private static final ClientRepository clientRepository = new MeteredClientRepository(new InMemoryClientRepository(), metrics);
+    private static final AccountRepository accountRepository = new MeteredAccountRepository(new InMemoryAccountRepository(), metrics);
+    private static final TransactionRepository transactionRepository = new MeteredTransactionRepository(
+        new InMemoryTransactionRepository(), metrics);
+    private static final Journal journal = openJournal();
+    private static final AuthService authService = new MeteredAuthService(clientRepository, metrics);
+    private static final ClientService clientService = new ClientService(clientRepository, authService, journal);
+    private static final SystemStatistics statistics = new SystemStatistics();
+    private static final AccountService accountService = new AccountService(accountRepository, journal, statistics);
+    private static final TransactionService transactionService = new MeteredTransactionService(transactionRepository,
+        accountRepository, journal, statistics, metrics);
+    private static final ExportService exportService = new ExportService(transactionRepository);
+    private static final BulkImportService bulkImportService = new BulkImportService(clientRepository, accountRepository,
+        transactionService, statistics, journal);
+    private static final BankerController bankerController = new BankerController(clientService, accountService, transactionService,
+        exportService, bulkImportService);
     private static final ClientController clientController = new ClientController(clientService);
-    private static final TransactionController transactionController = new TransactionController(transactionService, clientService);
+    private static final TransactionController transactionController = new TransactionController(transactionService, clientService, exportService);
     private static final BankerView bankerView = new BankerView(bankerController);
     private static final ClientView clientView = new ClientView(clientController, transactionController);
 
     public static Person currentUser = null; //track the logged-in user
 
+    // -Dbank.snapshot=<path> chooses where checkpoints are written (default data/bank.snapshot)
+    private static final CheckpointService checkpointService = new CheckpointService(clientRepository, accountRepository,
+        transactionRepository, transactionService, journal, Path.of(System.getProperty("bank.snapshot", "data/bank.snapshot")));
+
+    // rebuild the repositories from the last snapshot and the journal tail before anyone logs in,
+    // recount the statistics and fraud alerts once, then checkpoint every -Dbank.checkpointMinutes (default 5)
+    // unless the journal could not be opened: nothing would pause postings while a snapshot is taken
+    static {
+        try {
+            checkpointService.recover();
+        } catch (IOException e) {
+            System.out.println("Could not recover saved data: " + e.getMessage());
+        }
+        statistics.rebuild(accountRepository.findAll(), transactionRepository.findAll());
+        transactionService.reevaluateSuspiciousTransactions();
+        if (journal != Journal.NONE) {
+            checkpointService.scheduleEvery(Duration.ofMinutes(Long.getLong("bank.checkpointMinutes", 5)));
+        }
+    }
+
+    // -Dbank.journal=<path> chooses where postings are journaled (default data/bank.journal)
+    private static Journal openJournal() {
+        Path path = Path.of(System.getProperty("bank.journal", "data/bank.journal"));
+        try {
+            return FileJournal.open(path);
+        } catch (IOException e) {
+            System.out.println("Could not open journal " + path + ", changes will not be saved: " + e.getMessage());
+            return Journal.NONE;
+        }
+    }
+
     public static boolean authenticateUser(String email, String password, int roleChoice) {
         // Validate inputs
         if (!ValidatorUtil.isValidEmail(email)) {
@@ -58,13 +116,8 @@ public class HomeController {
 
                     // navigate to appropriate view
                     if (expectedRole == Role.CLIENT) {
-                        List<Client> allClients = clientService.listClients();
-                        for (Client repoClient : allClients) {
-                            if (repoClient.getClientId().equals(((Client) currentUser).getClientId())) {
-                                currentUser = repoClient; // Use repository reference
-                                break;
-                            }
-                        }
+                        clientRepository.findById(((Client) currentUser).getClientId())
+                            .ifPresent(repoClient -> currentUser = repoClient); // Use repository reference
                         clientView.clientView();
                     } else {
                         bankerView.bankerView();
@@ -5,48 +5,73 @@ import exceptions.InsufficientBalanceException;
 import exceptions.InvalidFilterException;
 import model.Account;
 import model.Client;
-import model.Transaction;
 import model.enums.TypeTransaction;
+import repository.TransactionQuery;
 import service.ClientService;
+import service.ExportService;
 import service.TransactionService;
-import util.DateUtil;
 import util.InputUtil;
+import util.MoneyUtil;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Predicate;
 
 public class TransactionController {
 
     private final TransactionService transactionService;
     private final ClientService clientService;
+    private final ExportService exportService;
 
-    public TransactionController(TransactionService transactionService, ClientService clientService) {
+    public TransactionController(TransactionService transactionService, ClientService clientService, ExportService exportService) {
         this.transactionService = transactionService;
         this.clientService = clientService;
+        this.exportService = exportService;
     }
 
-    // Helper method to get client first found account
-    public Account getPrimaryAccount() {
+    // Account of the current client to operate on: the only one, or the one they pick
+    public Account selectOwnAccount() {
         Client currentClient = (Client) HomeController.getCurrentUser();
-        // Assumes client has at least one account - returns the first account
-        return currentClient.getAccounts().get(0);
+        return selectAccount(currentClient.getAccounts(), "Select account: ", true);
+    }
+
+    // Lists the accounts and reads a choice; a single account is returned without asking
+    private Account selectAccount(List<Account> accounts, String prompt, boolean showBalance) {
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("No account found for this client.");
+        }
+        if (accounts.size() == 1) {
+            return accounts.get(0);
+        }
+        for (int i = 0; i < accounts.size(); i++) {
+            Account account = accounts.get(i);
+            if (showBalance) {
+                System.out.printf("%d. %s %s - %s DH%n", i + 1, account.getAccountType(), account.getAccountId(),
+                    MoneyUtil.format(account.getBalance()));
+            } else {
+                System.out.printf("%d. %s %s%n", i + 1, account.getAccountType(), account.getAccountId());
+            }
+        }
+        int choice = InputUtil.readInt(prompt);
+        if (choice < 1 || choice > accounts.size()) {
+            throw new IllegalArgumentException("Invalid account selection.");
+        }
+        return accounts.get(choice - 1);
     }
 
     public void makeWithdrawal() {
         try {
-            Account account = getPrimaryAccount();
+            Account account = selectOwnAccount();
             System.out.println("\n=== Make Withdrawal ===\n");
-            System.out.println("Current Balance: " + String.format("%.2f", account.getBalance()) + " DH");
+            System.out.println("Current Balance: " + MoneyUtil.format(account.getBalance()) + " DH");
 
-            double amount = InputUtil.readDouble("Enter withdrawal amount");
+            long amount = InputUtil.readAmount("Enter withdrawal amount");
             String description = InputUtil.readString("Enter description (optional)");
 
             transactionService.withdraw(account, amount, description);
 
             System.out.println("\nWithdrawal successful!");
-            System.out.println("Amount withdrawn: " + String.format("%.2f", amount) + " DH");
-            System.out.println("New Balance: " + String.format("%.2f", account.getBalance()) + " DH");
+            System.out.println("Amount withdrawn: " + MoneyUtil.format(amount) + " DH");
+            System.out.println("New Balance: " + MoneyUtil.format(account.getBalance()) + " DH");
 
         } catch (InsufficientBalanceException e) {
             System.out.println("\n" + e.getMessage());
@@ -59,18 +84,18 @@ public class TransactionController {
 
     public void makeDeposit() {
         try {
-            Account account = getPrimaryAccount();
+            Account account = selectOwnAccount();
             System.out.println("\n=== Make Deposit ===\n");
-            System.out.println("Current Balance: " + String.format("%.2f", account.getBalance()) + " DH");
+            System.out.println("Current Balance: " + MoneyUtil.format(account.getBalance()) + " DH");
 
-            double amount = InputUtil.readDouble("Enter Deposit amount");
+            long amount = InputUtil.readAmount("Enter Deposit amount");
             String description = InputUtil.readString("Enter description (optional)");
 
             transactionService.deposit(account, amount, description);
 
             System.out.println("\nDeposit successful!");
-            System.out.println("Amount deposited: " + String.format("%.2f", amount) + " DH");
-            System.out.println("New Balance: " + String.format("%.2f", account.getBalance()) + " DH");
+            System.out.println("Amount deposited: " + MoneyUtil.format(amount) + " DH");
+            System.out.println("New Balance: " + MoneyUtil.format(account.getBalance()) + " DH");
 
         } catch (InsufficientBalanceException e) {
             System.out.println("\n" + e.getMessage());
@@ -83,24 +108,24 @@ public class TransactionController {
 
     public void makeTransfer() {
         try {
-            Account sourceAccount = getPrimaryAccount();
+            Account sourceAccount = selectOwnAccount();
             System.out.println("\n=== Make Transfer ===\n");
-            System.out.println("Current Balance: " + String.format("%.2f", sourceAccount.getBalance()) + " DH");
+            System.out.println("Current Balance: " + MoneyUtil.format(sourceAccount.getBalance()) + " DH");
 
             Client selectedClient = selectTransferRecipient();
             if (selectedClient == null) return;
 
-            Account destinationAccount = selectedClient.getAccounts().get(0);
+            Account destinationAccount = selectAccount(selectedClient.getAccounts(), "Select recipient account: ", false);
 
-            double amount = InputUtil.readDouble("Enter transfer amount: ");
+            long amount = InputUtil.readAmount("Enter transfer amount: ");
             String description = InputUtil.readString("Enter description (optional): ");
 
             transactionService.transfer(sourceAccount, destinationAccount, amount, description);
 
             System.out.println("\nTransfer successful!");
-            System.out.println("Amount transferred: " + String.format("%.2f", amount) + " DH");
+            System.out.println("Amount transferred: " + MoneyUtil.format(amount) + " DH");
             System.out.println("To: " + selectedClient.getFirstName() + " " + selectedClient.getLastName());
-            System.out.println("New Balance: " + String.format("%.2f", sourceAccount.getBalance()) + " DH");
+            System.out.println("New Balance: " + MoneyUtil.format(sourceAccount.getBalance()) + " DH");
 
         } catch (InsufficientBalanceException e) {
             System.out.println("\n" + e.getMessage());
@@ -149,11 +174,7 @@ public class TransactionController {
     // Displays all transactions for the current client without any filters
     public void viewTransactionHistory() {
         try {
-            Client currentClient = (Client) HomeController.getCurrentUser();
-            List<Transaction> transactions = transactionService.getTransactions(currentClient);
-
-            displayTransactions(transactions, "Transaction History", null);
-
+            displayTransactions(new TransactionQuery(), "Transaction History", null);
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -161,79 +182,45 @@ public class TransactionController {
 
     /**
      * Helper method to display filtered/sorted transactions
-     * @param transactions The filtered/sorted transaction list to display
+     * @param query The filter/sort criteria
      * @param filterDescription Description of the applied filter/sort
      */
-    private void displayFilteredTransactions(List<Transaction> transactions, String filterDescription) {
-        displayTransactions(transactions, "Filtered/Sorted Transaction History", filterDescription);
+    private void displayFilteredTransactions(TransactionQuery query, String filterDescription) {
+        displayTransactions(query, "Filtered/Sorted Transaction History", filterDescription);
     }
 
     /**
-     * Common method for displaying transaction tables with consistent formatting
-     * @param transactions List of transactions to display
+     * Common method for displaying the current client's transactions a page at a time
+     * @param query Criteria and sort order; the pager fetches one page of it at a time
      * @param title Header title for the table
      * @param filterDescription Optional description of applied filters (null for unfiltered)
      */
-    private void displayTransactions(List<Transaction> transactions, String title, String filterDescription) {
-        System.out.println("\n=== " + title + " ===");
-
-        // Show filter/sort information if provided
-        if (filterDescription != null) {
-            System.out.println("Filter/Sort: " + filterDescription);
-        }
-
-        if (transactions.isEmpty()) {
-            System.out.println("No transactions found" + (filterDescription != null ? " matching the criteria." : "."));
-            return;
-        }
-
-        System.out.println("\n# | Type       | Amount     | Recipient            | Description           | Date");
-        System.out.println("--|------------|------------|----------------------|-----------------------|--------------------");
-
-        for (int i = 0; i < transactions.size(); i++) {
-            Transaction t = transactions.get(i);
-
-            // Determine recipient based on transaction type
-            String recipient = "-";
-            if (t.getTransactionType() == TypeTransaction.TRANSFER) {
-                if (t.getDestinationAccount() != null) {
-                    Client recipientClient = t.getDestinationAccount().getClient();
-                    if (recipientClient != null) {
-                        recipient = recipientClient.getFirstName() + " " + recipientClient.getLastName();
-                        if (recipient.length() > 20) {
-                            recipient = recipient.substring(0, 17) + "...";
-                        }
-                    }
-                }
-            }
-
-            System.out.printf("%-2d| %-10s | %10.2f | %-20s | %-21s | %s%n",
-                i + 1, // Row number (1-based)
-                t.getTransactionType(),
-                t.getAmount(),
-                recipient,
-                t.getDescription().length() > 21 ? t.getDescription().substring(0, 18) + "..." : t.getDescription(),
-                DateUtil.formatDateTime(t.getDate())
-            );
-        }
+    private void displayTransactions(TransactionQuery query, String title, String filterDescription) {
+        Client currentClient = (Client) HomeController.getCurrentUser();
+        String header = filterDescription != null ? title + " - " + filterDescription : title;
+        new TransactionPager(header, query, page -> transactionService.filterTransactions(currentClient, page), false)
+            .browse();
+    }
 
-        // Show total count for filtered results
-        if (filterDescription != null) {
-            System.out.println("\nTotal transactions displayed: " + transactions.size());
-        }
+    // Export the current client's statement over all their accounts to a CSV or JSON file
+    public void exportStatement() {
+        Client currentClient = (Client) HomeController.getCurrentUser();
+        System.out.println("\n=== Export Statement ===");
+        ExportPrompt.run("statement-" + currentClient.getClientId(),
+            (file, format, from, to) -> exportService.exportStatement(currentClient, file, format, from, to));
     }
 
-    public double getTotalWithdrawals() {
+    public long getTotalWithdrawals() {
         Client currentClient = (Client) HomeController.getCurrentUser();
         return transactionService.totalWithdrawals(currentClient);
     }
 
-    public double getTotalDeposits() {
+    public long getTotalDeposits() {
         Client currentClient = (Client) HomeController.getCurrentUser();
         return transactionService.totalDeposits(currentClient);
     }
 
-    public double getTotalTransfers() {
+    public long getTotalTransfers() {
         Client currentClient = (Client) HomeController.getCurrentUser();
         return transactionService.totalTransfers(currentClient);
     }
@@ -291,12 +278,8 @@ public class TransactionController {
                     throw new InvalidFilterException("Invalid transaction type selection.");
             }
 
-            Client currentClient = (Client) HomeController.getCurrentUser();
-            // Create Predicate lambda to filter by transaction type
-            Predicate<Transaction> typeFilter = transaction -> transaction.getTransactionType() == selectedType;
-            List<Transaction> filteredTransactions = transactionService.filterTransactions(currentClient, typeFilter);
-
-            displayFilteredTransactions(filteredTransactions, "Type: " + selectedType);
+            TransactionQuery query = new TransactionQuery().types(selectedType);
+            displayFilteredTransactions(query, "Type: " + selectedType);
 
         } catch (InvalidFilterException e) {
             System.out.println("Filter Error: " + e.getMessage());
@@ -306,8 +289,8 @@ public class TransactionController {
 
     private void filterByAmount() {
         try {
-            double min = InputUtil.readDouble("Enter minimum amount: ");
-            double max = InputUtil.readDouble("Enter maximum amount: ");
+            long min = InputUtil.readAmount("Enter minimum amount: ");
+            long max = InputUtil.readAmount("Enter maximum amount: ");
 
             if (min < 0 || max < 0) {
                 throw new InvalidFilterException("Amount values cannot be negative.");
@@ -317,13 +300,9 @@ public class TransactionController {
                 throw new InvalidFilterException("Minimum amount cannot be greater than maximum amount.");
             }
 
-            Client currentClient = (Client) HomeController.getCurrentUser();
-            // Create Predicate lambda to filter by amount range (inclusive)
-            Predicate<Transaction> amountFilter = transaction ->
-                transaction.getAmount() >= min && transaction.getAmount() <= max;
-            List<Transaction> filteredTransactions = transactionService.filterTransactions(currentClient, amountFilter);
-
-            displayFilteredTransactions(filteredTransactions, "Amount: " + String.format("%.2f", min) + " - " + String.format("%.2f", max) + " DH");
+            // amount range is inclusive
+            TransactionQuery query = new TransactionQuery().amountBetween(min, max);
+            displayFilteredTransactions(query, "Amount: " + MoneyUtil.format(min) + " - " + MoneyUtil.format(max) + " DH");
 
         } catch (InvalidFilterException e) {
             System.out.println("Filter Error: " + e.getMessage());
@@ -353,11 +332,10 @@ public class TransactionController {
                     throw new InvalidFilterException("Invalid date sort selection.");
             }
 
-            Client currentClient = (Client) HomeController.getCurrentUser();
-            // Use service method that applies Comparator internally
-            List<Transaction> sortedTransactions = transactionService.sortTransactionsByDate(currentClient, ascending);
-
-            displayFilteredTransactions(sortedTransactions, "Sorted by Date: " + sortOrder);
+            // histories are kept in date order, either direction is read without sorting
+            TransactionQuery query = new TransactionQuery()
+                .sortBy(ascending ? TransactionQuery.Sort.DATE_ASC : TransactionQuery.Sort.DATE_DESC);
+            displayFilteredTransactions(query, "Sorted by Date: " + sortOrder);
 
         } catch (InvalidFilterException e) {
             System.out.println("Sort Error: " + e.getMessage());
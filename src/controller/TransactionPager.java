@@ -0,0 +1,214 @@
+package controller;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeTransaction;
+import repository.TransactionQuery;
+import util.DateUtil;
+import util.InputUtil;
+import util.MoneyUtil;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shows query results one page at a time: next, previous and jump to a date. Each page is fetched
+ * with the query's own offset/limit, so the repository indexes do the work and only the rows on
+ * screen are read, whatever the size of the ledger.
+ *
+ * A page is formatted into one reused StringBuilder (money and dates appended digit by digit, no
+ * String.format) and handed to System.out in one write, flushed per page, so it stays in order with
+ * the rest of the console and follows System.setOut.
+ */
+final class TransactionPager {
+    private static final int PAGE_SIZE = 20;
+
+    private final String title;
+    private final TransactionQuery query;
+    private final Function<TransactionQuery, List<Transaction>> fetch;
+    private final boolean showClient;
+    private final StringBuilder page = new StringBuilder(PAGE_SIZE * 160);
+
+    // `fetch` runs a query for one page; `query` holds the criteria and sort, the pager sets the page
+    TransactionPager(String title, TransactionQuery query, Function<TransactionQuery, List<Transaction>> fetch,
+                     boolean showClient) {
+        this.title = title;
+        this.query = query;
+        this.fetch = fetch;
+        this.showClient = showClient;
+    }
+
+    // Interactive loop; returns when the reader quits, or right away when everything fits on one page
+    void browse() {
+        TransactionQuery window = query;
+        LocalDateTime anchor = null;
+        int offset = 0;
+        while (true) {
+            // one row more than the page tells whether there is a next page
+            List<Transaction> rows = fetch.apply(window.copy().page(offset, PAGE_SIZE + 1));
+            boolean hasNext = rows.size() > PAGE_SIZE;
+            render(rows, offset, Math.min(rows.size(), PAGE_SIZE), anchor);
+            if (offset == 0 && !hasNext) {
+                return;
+            }
+
+            String command = InputUtil.readString("[n]ext  [p]revious  [d]ate jump  [q]uit:").toLowerCase();
+            switch (command) {
+                case "n":
+                    if (hasNext) {
+                        offset += PAGE_SIZE;
+                    } else {
+                        System.out.println("Already on the last page.");
+                    }
+                    break;
+                case "p":
+                    offset = Math.max(0, offset - PAGE_SIZE);
+                    break;
+                case "d":
+                    TransactionQuery moved = jumpTo(InputUtil.readString("Date dd/mm/yyyy:"));
+                    if (moved != null) {
+                        window = moved;
+                        anchor = query.getSort() == TransactionQuery.Sort.DATE_ASC ? moved.getFrom() : moved.getTo();
+                        offset = 0;
+                    }
+                    break;
+                case "q":
+                    return;
+                default:
+                    System.out.println("Unknown command.");
+            }
+        }
+    }
+
+    // Moves the window to start at the given day: the date bound in the sort direction becomes that day
+    private TransactionQuery jumpTo(String text) {
+        TransactionQuery.Sort sort = query.getSort();
+        if (sort != TransactionQuery.Sort.DATE_ASC && sort != TransactionQuery.Sort.DATE_DESC) {
+            System.out.println("Jumping to a date needs a date order.");
+            return null;
+        }
+        LocalDate day;
+        try {
+            day = DateUtil.parseDate(text);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date, use dd/mm/yyyy.");
+            return null;
+        }
+        TransactionQuery moved = query.copy();
+        if (sort == TransactionQuery.Sort.DATE_ASC) {
+            LocalDateTime from = day.atStartOfDay();
+            moved.dateBetween(later(query.getFrom(), from), query.getTo());
+        } else {
+            LocalDateTime to = day.plusDays(1).atStartOfDay().minusNanos(1);
+            moved.dateBetween(query.getFrom(), earlier(query.getTo(), to));
+        }
+        return moved;
+    }
+
+    private void render(List<Transaction> rows, int offset, int count, LocalDateTime anchor) {
+        StringBuilder out = page;
+        out.setLength(0);
+        out.append("\n=== ").append(title).append(" ===\n");
+        if (anchor != null) {
+            DateUtil.formatDateTimeTo(out.append("From "), anchor).append('\n');
+        }
+        if (count == 0) {
+            out.append(offset == 0 ? "No transactions found.\n" : "No more transactions.\n");
+        } else {
+            out.append("\n#      | Type       | Amount       | ");
+            if (showClient) {
+                out.append("Client               | ");
+            }
+            out.append("Recipient            | Description           | Date\n");
+            out.append("-------|------------|--------------|-");
+            if (showClient) {
+                out.append("---------------------|-");
+            }
+            out.append("---------------------|-----------------------|-----------------\n");
+            for (int i = 0; i < count; i++) {
+                appendRow(out, offset + i + 1, rows.get(i));
+            }
+            out.append("\nRows ").append(offset + 1).append('-').append(offset + count).append('\n');
+        }
+        // the whole page in one write, looked up now so a replaced System.out is honoured
+        PrintStream console = System.out;
+        console.append(out);
+        console.flush();
+    }
+
+    private void appendRow(StringBuilder out, int number, Transaction t) {
+        int start = out.length();
+        out.append(number);
+        padTo(out, start + 7).append("| ");
+
+        start = out.length();
+        out.append(t.getTransactionType().name());
+        padTo(out, start + 11).append("| ");
+
+        // amounts are right-aligned: format at the end, then shift into place
+        start = out.length();
+        MoneyUtil.formatTo(out, t.getAmount());
+        alignRight(out, start, 12).append(" | ");
+
+        if (showClient) {
+            appendName(out, t.getSourceAccount()).append(" | ");
+        }
+        appendName(out, t.getTransactionType() == TypeTransaction.TRANSFER ? t.getDestinationAccount() : null)
+            .append(" | ");
+
+        start = out.length();
+        String description = t.getDescription() == null ? "" : t.getDescription();
+        if (description.length() > 21) {
+            out.append(description, 0, 18).append("...");
+        } else {
+            out.append(description);
+        }
+        padTo(out, start + 21).append(" | ");
+
+        DateUtil.formatDateTimeTo(out, t.getDate()).append('\n');
+    }
+
+    // account holder's name in a 20 column cell, "-" when there is none
+    private static StringBuilder appendName(StringBuilder out, Account account) {
+        int start = out.length();
+        Client client = account != null ? account.getClient() : null;
+        if (client == null) {
+            out.append('-');
+        } else {
+            out.append(client.getFirstName()).append(' ').append(client.getLastName());
+            if (out.length() - start > 20) {
+                out.setLength(start + 17);
+                out.append("...");
+            }
+        }
+        return padTo(out, start + 20);
+    }
+
+    private static StringBuilder padTo(StringBuilder out, int column) {
+        while (out.length() < column) {
+            out.append(' ');
+        }
+        return out;
+    }
+
+    private static StringBuilder alignRight(StringBuilder out, int start, int width) {
+        int missing = width - (out.length() - start);
+        for (int k = 0; k < missing; k++) {
+            out.insert(start, ' ');
+        }
+        return out;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    private static LocalDateTime earlier(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+}
@@ -0,0 +1,109 @@
+package metrics;
+
+import model.Account;
+import model.Client;
+import repository.AccountRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Times every call into the wrapped repository
+public class MeteredAccountRepository implements AccountRepository {
+    private final AccountRepository delegate;
+    private final OperationMetrics save;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics findById;
+    private final OperationMetrics findByClient;
+    private final OperationMetrics findAll;
+    private final OperationMetrics delete;
+
+    public MeteredAccountRepository(AccountRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.operation("AccountRepository", "save");
+        this.saveAll = registry.operation("AccountRepository", "saveAll");
+        this.findById = registry.operation("AccountRepository", "findById");
+        this.findByClient = registry.operation("AccountRepository", "findByClient");
+        this.findAll = registry.operation("AccountRepository", "findAll");
+        this.delete = registry.operation("AccountRepository", "delete");
+    }
+
+    @Override
+    public void save(Account account) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(account);
+        } catch (RuntimeException | Error e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.record(start);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Account> accounts) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(accounts);
+        } catch (RuntimeException | Error e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Account> findById(UUID id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } catch (RuntimeException | Error e) {
+            findById.failed();
+            throw e;
+        } finally {
+            findById.record(start);
+        }
+    }
+
+    @Override
+    public List<Account> findByClient(Client client) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByClient(client);
+        } catch (RuntimeException | Error e) {
+            findByClient.failed();
+            throw e;
+        } finally {
+            findByClient.record(start);
+        }
+    }
+
+    @Override
+    public List<Account> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException | Error e) {
+            findAll.failed();
+            throw e;
+        } finally {
+            findAll.record(start);
+        }
+    }
+
+    @Override
+    public void delete(UUID id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+        } catch (RuntimeException | Error e) {
+            delete.failed();
+            throw e;
+        } finally {
+            delete.record(start);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import model.Banker;
+import model.Person;
+import model.enums.Role;
+import repository.ClientRepository;
+import service.AuthService;
+
+import java.util.Optional;
+
+// AuthService with every public method timed, checked by MeteredDecoratorsTest; rejected credentials count as an error of login
+public class MeteredAuthService extends AuthService {
+    private final OperationMetrics banker;
+    private final OperationMetrics emailExists;
+    private final OperationMetrics login;
+
+    public MeteredAuthService(ClientRepository clientRepo, MetricsRegistry registry) {
+        super(clientRepo);
+        this.banker = registry.operation("AuthService", "banker");
+        this.emailExists = registry.operation("AuthService", "emailExists");
+        this.login = registry.operation("AuthService", "login");
+    }
+
+    @Override
+    public Banker banker(String username, String password, Role role) {
+        long start = System.nanoTime();
+        try {
+            return super.banker(username, password, role);
+        } catch (RuntimeException | Error e) {
+            banker.failed();
+            throw e;
+        } finally {
+            banker.record(start);
+        }
+    }
+
+    @Override
+    public boolean emailExists(String email, Role role) {
+        long start = System.nanoTime();
+        try {
+            return super.emailExists(email, role);
+        } catch (RuntimeException | Error e) {
+            emailExists.failed();
+            throw e;
+        } finally {
+            emailExists.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Person> login(String email, String password) {
+        long start = System.nanoTime();
+        try {
+            return super.login(email, password);
+        } catch (RuntimeException | Error e) {
+            login.failed();
+            throw e;
+        } finally {
+            login.record(start);
+        }
+    }
+}
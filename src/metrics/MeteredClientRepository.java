@@ -0,0 +1,108 @@
+package metrics;
+
+import model.Client;
+import repository.ClientRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Times every call into the wrapped repository
+public class MeteredClientRepository implements ClientRepository {
+    private final ClientRepository delegate;
+    private final OperationMetrics save;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics findById;
+    private final OperationMetrics findByEmail;
+    private final OperationMetrics findAll;
+    private final OperationMetrics delete;
+
+    public MeteredClientRepository(ClientRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.operation("ClientRepository", "save");
+        this.saveAll = registry.operation("ClientRepository", "saveAll");
+        this.findById = registry.operation("ClientRepository", "findById");
+        this.findByEmail = registry.operation("ClientRepository", "findByEmail");
+        this.findAll = registry.operation("ClientRepository", "findAll");
+        this.delete = registry.operation("ClientRepository", "delete");
+    }
+
+    @Override
+    public void save(Client client) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(client);
+        } catch (RuntimeException | Error e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.record(start);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Client> clients) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(clients);
+        } catch (RuntimeException | Error e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Client> findById(UUID id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } catch (RuntimeException | Error e) {
+            findById.failed();
+            throw e;
+        } finally {
+            findById.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Client> findByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByEmail(email);
+        } catch (RuntimeException | Error e) {
+            findByEmail.failed();
+            throw e;
+        } finally {
+            findByEmail.record(start);
+        }
+    }
+
+    @Override
+    public List<Client> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException | Error e) {
+            findAll.failed();
+            throw e;
+        } finally {
+            findAll.record(start);
+        }
+    }
+
+    @Override
+    public void delete(UUID id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+        } catch (RuntimeException | Error e) {
+            delete.failed();
+            throw e;
+        } finally {
+            delete.record(start);
+        }
+    }
+}
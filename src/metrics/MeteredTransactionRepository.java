@@ -0,0 +1,109 @@
+package metrics;
+
+import model.Transaction;
+import repository.TransactionQuery;
+import repository.TransactionRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Times every call into the wrapped repository; a scan's time includes what its visitor does
+public class MeteredTransactionRepository implements TransactionRepository {
+    private final TransactionRepository delegate;
+    private final OperationMetrics save;
+    private final OperationMetrics findByAccountId;
+    private final OperationMetrics findByAccountIdBetween;
+    private final OperationMetrics findAll;
+    private final OperationMetrics query;
+    private final OperationMetrics scan;
+
+    public MeteredTransactionRepository(TransactionRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.operation("TransactionRepository", "save");
+        this.findByAccountId = registry.operation("TransactionRepository", "findByAccountId");
+        this.findByAccountIdBetween = registry.operation("TransactionRepository", "findByAccountIdBetween");
+        this.findAll = registry.operation("TransactionRepository", "findAll");
+        this.query = registry.operation("TransactionRepository", "query");
+        this.scan = registry.operation("TransactionRepository", "scan");
+    }
+
+    @Override
+    public void save(Transaction transaction) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(transaction);
+        } catch (RuntimeException | Error e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(UUID accountId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountId(accountId);
+        } catch (RuntimeException | Error e) {
+            findByAccountId.failed();
+            throw e;
+        } finally {
+            findByAccountId.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdBetween(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountIdBetween(accountId, from, to);
+        } catch (RuntimeException | Error e) {
+            findByAccountIdBetween.failed();
+            throw e;
+        } finally {
+            findByAccountIdBetween.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException | Error e) {
+            findAll.failed();
+            throw e;
+        } finally {
+            findAll.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> query(TransactionQuery transactionQuery) {
+        long start = System.nanoTime();
+        try {
+            return delegate.query(transactionQuery);
+        } catch (RuntimeException | Error e) {
+            query.failed();
+            throw e;
+        } finally {
+            query.record(start);
+        }
+    }
+
+    @Override
+    public void scan(TransactionQuery transactionQuery, Consumer<Transaction> visitor) {
+        long start = System.nanoTime();
+        try {
+            delegate.scan(transactionQuery, visitor);
+        } catch (RuntimeException | Error e) {
+            scan.failed();
+            throw e;
+        } finally {
+            scan.record(start);
+        }
+    }
+}
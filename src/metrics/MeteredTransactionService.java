@@ -0,0 +1,401 @@
+package metrics;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import repository.AccountRepository;
+import repository.TransactionQuery;
+import repository.TransactionRepository;
+import repository.journal.Journal;
+import service.SystemStatistics;
+import service.TransactionService;
+import service.fraud.FraudAlert;
+import service.fraud.FraudRule;
+
+import java.util.List;
+
+// TransactionService with every public method timed; a call that throws (insufficient balance,
+// over a limit, journal failure) counts as an error of its operation. MeteredDecoratorsTest fails
+// the build when a method is added to TransactionService without being metered here.
+public class MeteredTransactionService extends TransactionService {
+    private final OperationMetrics withdraw;
+    private final OperationMetrics deposit;
+    private final OperationMetrics transfer;
+    private final OperationMetrics restore;
+    private final OperationMetrics getTransactions;
+    private final OperationMetrics totalWithdrawals;
+    private final OperationMetrics totalDeposits;
+    private final OperationMetrics totalTransfers;
+    private final OperationMetrics filterTransactions;
+    private final OperationMetrics queryLedger;
+    private final OperationMetrics sortTransactionsByDate;
+    private final OperationMetrics getAllTransactions;
+    private final OperationMetrics getTotalSystemDeposits;
+    private final OperationMetrics getTotalSystemWithdrawals;
+    private final OperationMetrics getTotalSystemTransfers;
+    private final OperationMetrics getTotalTransactionCount;
+    private final OperationMetrics getDepositCount;
+    private final OperationMetrics getWithdrawalCount;
+    private final OperationMetrics getTransferCount;
+    private final OperationMetrics getSuspiciousTransactions;
+    private final OperationMetrics getSuspiciousAlerts;
+    private final OperationMetrics reevaluateSuspiciousTransactions;
+    private final OperationMetrics getFraudRules;
+    private final OperationMetrics getLargeAmountTransactions;
+    private final OperationMetrics getRepeatedTransactions;
+
+    public MeteredTransactionService(TransactionRepository transactionRepository, AccountRepository accountRepository,
+                                     Journal journal, SystemStatistics statistics, MetricsRegistry registry) {
+        super(transactionRepository, accountRepository, journal, statistics);
+        this.withdraw = registry.operation("TransactionService", "withdraw");
+        this.deposit = registry.operation("TransactionService", "deposit");
+        this.transfer = registry.operation("TransactionService", "transfer");
+        this.restore = registry.operation("TransactionService", "restore");
+        this.getTransactions = registry.operation("TransactionService", "getTransactions");
+        this.totalWithdrawals = registry.operation("TransactionService", "totalWithdrawals");
+        this.totalDeposits = registry.operation("TransactionService", "totalDeposits");
+        this.totalTransfers = registry.operation("TransactionService", "totalTransfers");
+        this.filterTransactions = registry.operation("TransactionService", "filterTransactions");
+        this.queryLedger = registry.operation("TransactionService", "queryLedger");
+        this.sortTransactionsByDate = registry.operation("TransactionService", "sortTransactionsByDate");
+        this.getAllTransactions = registry.operation("TransactionService", "getAllTransactions");
+        this.getTotalSystemDeposits = registry.operation("TransactionService", "getTotalSystemDeposits");
+        this.getTotalSystemWithdrawals = registry.operation("TransactionService", "getTotalSystemWithdrawals");
+        this.getTotalSystemTransfers = registry.operation("TransactionService", "getTotalSystemTransfers");
+        this.getTotalTransactionCount = registry.operation("TransactionService", "getTotalTransactionCount");
+        this.getDepositCount = registry.operation("TransactionService", "getDepositCount");
+        this.getWithdrawalCount = registry.operation("TransactionService", "getWithdrawalCount");
+        this.getTransferCount = registry.operation("TransactionService", "getTransferCount");
+        this.getSuspiciousTransactions = registry.operation("TransactionService", "getSuspiciousTransactions");
+        this.getSuspiciousAlerts = registry.operation("TransactionService", "getSuspiciousAlerts");
+        this.reevaluateSuspiciousTransactions = registry.operation("TransactionService", "reevaluateSuspiciousTransactions");
+        this.getFraudRules = registry.operation("TransactionService", "getFraudRules");
+        this.getLargeAmountTransactions = registry.operation("TransactionService", "getLargeAmountTransactions");
+        this.getRepeatedTransactions = registry.operation("TransactionService", "getRepeatedTransactions");
+    }
+
+    @Override
+    public void withdraw(Account account, long amount, String description) {
+        long start = System.nanoTime();
+        try {
+            super.withdraw(account, amount, description);
+        } catch (RuntimeException | Error e) {
+            withdraw.failed();
+            throw e;
+        } finally {
+            withdraw.record(start);
+        }
+    }
+
+    @Override
+    public void deposit(Account account, long amount, String description) {
+        long start = System.nanoTime();
+        try {
+            super.deposit(account, amount, description);
+        } catch (RuntimeException | Error e) {
+            deposit.failed();
+            throw e;
+        } finally {
+            deposit.record(start);
+        }
+    }
+
+    @Override
+    public void transfer(Account source, Account destination, long amount, String description) {
+        long start = System.nanoTime();
+        try {
+            super.transfer(source, destination, amount, description);
+        } catch (RuntimeException | Error e) {
+            transfer.failed();
+            throw e;
+        } finally {
+            transfer.record(start);
+        }
+    }
+
+    @Override
+    public void restore(Transaction transaction) {
+        long start = System.nanoTime();
+        try {
+            super.restore(transaction);
+        } catch (RuntimeException | Error e) {
+            restore.failed();
+            throw e;
+        } finally {
+            restore.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactions(Client client) {
+        long start = System.nanoTime();
+        try {
+            return super.getTransactions(client);
+        } catch (RuntimeException | Error e) {
+            getTransactions.failed();
+            throw e;
+        } finally {
+            getTransactions.record(start);
+        }
+    }
+
+    @Override
+    public long totalWithdrawals(Client client) {
+        long start = System.nanoTime();
+        try {
+            return super.totalWithdrawals(client);
+        } catch (RuntimeException | Error e) {
+            totalWithdrawals.failed();
+            throw e;
+        } finally {
+            totalWithdrawals.record(start);
+        }
+    }
+
+    @Override
+    public long totalDeposits(Client client) {
+        long start = System.nanoTime();
+        try {
+            return super.totalDeposits(client);
+        } catch (RuntimeException | Error e) {
+            totalDeposits.failed();
+            throw e;
+        } finally {
+            totalDeposits.record(start);
+        }
+    }
+
+    @Override
+    public long totalTransfers(Client client) {
+        long start = System.nanoTime();
+        try {
+            return super.totalTransfers(client);
+        } catch (RuntimeException | Error e) {
+            totalTransfers.failed();
+            throw e;
+        } finally {
+            totalTransfers.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> filterTransactions(Client client, TransactionQuery query) {
+        long start = System.nanoTime();
+        try {
+            return super.filterTransactions(client, query);
+        } catch (RuntimeException | Error e) {
+            filterTransactions.failed();
+            throw e;
+        } finally {
+            filterTransactions.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> queryLedger(TransactionQuery query) {
+        long start = System.nanoTime();
+        try {
+            return super.queryLedger(query);
+        } catch (RuntimeException | Error e) {
+            queryLedger.failed();
+            throw e;
+        } finally {
+            queryLedger.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> sortTransactionsByDate(Client client, boolean ascending) {
+        long start = System.nanoTime();
+        try {
+            return super.sortTransactionsByDate(client, ascending);
+        } catch (RuntimeException | Error e) {
+            sortTransactionsByDate.failed();
+            throw e;
+        } finally {
+            sortTransactionsByDate.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getAllTransactions() {
+        long start = System.nanoTime();
+        try {
+            return super.getAllTransactions();
+        } catch (RuntimeException | Error e) {
+            getAllTransactions.failed();
+            throw e;
+        } finally {
+            getAllTransactions.record(start);
+        }
+    }
+
+    @Override
+    public long getTotalSystemDeposits() {
+        long start = System.nanoTime();
+        try {
+            return super.getTotalSystemDeposits();
+        } catch (RuntimeException | Error e) {
+            getTotalSystemDeposits.failed();
+            throw e;
+        } finally {
+            getTotalSystemDeposits.record(start);
+        }
+    }
+
+    @Override
+    public long getTotalSystemWithdrawals() {
+        long start = System.nanoTime();
+        try {
+            return super.getTotalSystemWithdrawals();
+        } catch (RuntimeException | Error e) {
+            getTotalSystemWithdrawals.failed();
+            throw e;
+        } finally {
+            getTotalSystemWithdrawals.record(start);
+        }
+    }
+
+    @Override
+    public long getTotalSystemTransfers() {
+        long start = System.nanoTime();
+        try {
+            return super.getTotalSystemTransfers();
+        } catch (RuntimeException | Error e) {
+            getTotalSystemTransfers.failed();
+            throw e;
+        } finally {
+            getTotalSystemTransfers.record(start);
+        }
+    }
+
+    @Override
+    public int getTotalTransactionCount() {
+        long start = System.nanoTime();
+        try {
+            return super.getTotalTransactionCount();
+        } catch (RuntimeException | Error e) {
+            getTotalTransactionCount.failed();
+            throw e;
+        } finally {
+            getTotalTransactionCount.record(start);
+        }
+    }
+
+    @Override
+    public int getDepositCount() {
+        long start = System.nanoTime();
+        try {
+            return super.getDepositCount();
+        } catch (RuntimeException | Error e) {
+            getDepositCount.failed();
+            throw e;
+        } finally {
+            getDepositCount.record(start);
+        }
+    }
+
+    @Override
+    public int getWithdrawalCount() {
+        long start = System.nanoTime();
+        try {
+            return super.getWithdrawalCount();
+        } catch (RuntimeException | Error e) {
+            getWithdrawalCount.failed();
+            throw e;
+        } finally {
+            getWithdrawalCount.record(start);
+        }
+    }
+
+    @Override
+    public int getTransferCount() {
+        long start = System.nanoTime();
+        try {
+            return super.getTransferCount();
+        } catch (RuntimeException | Error e) {
+            getTransferCount.failed();
+            throw e;
+        } finally {
+            getTransferCount.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getSuspiciousTransactions() {
+        long start = System.nanoTime();
+        try {
+            return super.getSuspiciousTransactions();
+        } catch (RuntimeException | Error e) {
+            getSuspiciousTransactions.failed();
+            throw e;
+        } finally {
+            getSuspiciousTransactions.record(start);
+        }
+    }
+
+    @Override
+    public List<FraudAlert> getSuspiciousAlerts() {
+        long start = System.nanoTime();
+        try {
+            return super.getSuspiciousAlerts();
+        } catch (RuntimeException | Error e) {
+            getSuspiciousAlerts.failed();
+            throw e;
+        } finally {
+            getSuspiciousAlerts.record(start);
+        }
+    }
+
+    @Override
+    public void reevaluateSuspiciousTransactions() {
+        long start = System.nanoTime();
+        try {
+            super.reevaluateSuspiciousTransactions();
+        } catch (RuntimeException | Error e) {
+            reevaluateSuspiciousTransactions.failed();
+            throw e;
+        } finally {
+            reevaluateSuspiciousTransactions.record(start);
+        }
+    }
+
+    @Override
+    public List<FraudRule> getFraudRules() {
+        long start = System.nanoTime();
+        try {
+            return super.getFraudRules();
+        } catch (RuntimeException | Error e) {
+            getFraudRules.failed();
+            throw e;
+        } finally {
+            getFraudRules.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getLargeAmountTransactions(long threshold) {
+        long start = System.nanoTime();
+        try {
+            return super.getLargeAmountTransactions(threshold);
+        } catch (RuntimeException | Error e) {
+            getLargeAmountTransactions.failed();
+            throw e;
+        } finally {
+            getLargeAmountTransactions.record(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getRepeatedTransactions(int minOccurrences) {
+        long start = System.nanoTime();
+        try {
+            return super.getRepeatedTransactions(minOccurrences);
+        } catch (RuntimeException | Error e) {
+            getRepeatedTransactions.failed();
+            throw e;
+        } finally {
+            getRepeatedTransactions.record(start);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out the OperationMetrics of each metered operation and publishes every one of them on the
+ * platform MBean server as <domain>:type=<component>,name=<operation>, where jconsole, VisualVM or
+ * any JMX exporter can read them. A registry created later takes over names already published.
+ */
+public class MetricsRegistry {
+    private final String domain;
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(String domain) {
+        this.domain = domain;
+    }
+
+    // the metrics of one operation, created and published on first use
+    public OperationMetrics operation(String component, String operation) {
+        return operations.computeIfAbsent(component + "." + operation, key -> publish(new OperationMetrics(component, operation)));
+    }
+
+    // snapshot of every operation metered so far
+    public List<OperationMetrics> all() {
+        return new ArrayList<>(operations.values());
+    }
+
+    private OperationMetrics publish(OperationMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName(domain + ":type=" + metrics.getComponent() + ",name=" + metrics.getOperation());
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            // still recorded, only not visible over JMX
+            System.out.println("Could not publish metrics " + metrics.getComponent() + "." + metrics.getOperation()
+                + " over JMX: " + e.getMessage());
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,96 @@
+package metrics;
+
+import util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls, failures and a latency histogram for one operation. Recording is a few atomic adds and
+ * allocates nothing, so it can stay on in production; percentiles are worked out when read.
+ *
+ *   long start = System.nanoTime();
+ *   try {
+ *       return delegate.findAll();
+ *   } catch (RuntimeException | Error e) {
+ *       metrics.failed();
+ *       throw e;
+ *   } finally {
+ *       metrics.record(start);
+ *   }
+ *
+ * is written out at each call site rather than passed in as a lambda, so a metered call allocates
+ * nothing even where the JIT cannot inline through a shared helper.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+    private final String component;
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private volatile long sinceNanos = System.nanoTime();
+
+    OperationMetrics(String component, String operation) {
+        this.component = component;
+        this.operation = operation;
+    }
+
+    //Getters
+    public String getComponent() {return component;}
+    public String getOperation() {return operation;}
+
+    // one call that started at startNanos, a System.nanoTime() reading
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    // the call being recorded threw
+    public void failed() {
+        errors.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getRatePerSecond() {
+        return getCount() / (Math.max(System.nanoTime() - sinceNanos, 1) / 1e9);
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.mean() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.valueAtPercentile(50) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.valueAtPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.valueAtPercentile(99.9) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.max() / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        sinceNanos = System.nanoTime();
+    }
+}
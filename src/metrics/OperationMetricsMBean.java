@@ -0,0 +1,23 @@
+package metrics;
+
+// JMX view of one operation's metrics; latencies in microseconds, rate per second since the last reset
+public interface OperationMetricsMBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getRatePerSecond();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -4,33 +4,58 @@ import model.enums.TypeAccount;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Account {
     UUID accountId;
     TypeAccount accountType;
-    double balance;
-    List<Transaction> transactions;
+    final AtomicLong balance; // in centimes, see util.MoneyUtil
+    TransactionHistory transactions; // date ordered, safe to read while postings are added
     Client client;
 
-    public Account(UUID accountId, TypeAccount accountType, double balance, List<Transaction> transactions, Client client) {
+    public Account(UUID accountId, TypeAccount accountType, long balance, List<Transaction> transactions, Client client) {
         this.accountId = accountId;
         this.accountType = accountType;
-        this.balance = balance;
-        this.transactions = transactions;
+        this.balance = new AtomicLong(balance);
+        this.transactions = new TransactionHistory(transactions);
         this.client = client;
     }
 
     //Getters
     public UUID getAccountId() {return accountId;}
     public TypeAccount getAccountType() {return accountType;}
-    public double getBalance() {return balance;}
-    public List<Transaction> getTransactions() {return transactions;}
+    public long getBalance() {return balance.get();}
+    public TransactionHistory getTransactions() {return transactions;}
     public Client getClient() {return client;}
 
     //Setters
     public void setAccountId(UUID accountId) {this.accountId = accountId;}
     public void setAccountType(TypeAccount accountType) {this.accountType = accountType;}
-    public void setBalance(double balance) {this.balance = balance;}
-    public void setTransactions(List<Transaction> transactions) {this.transactions = transactions;}
+    public void setBalance(long balance) {this.balance.set(balance);}
+    public void setTransactions(List<Transaction> transactions) {this.transactions = new TransactionHistory(transactions);}
     public void setClient(Client client) {this.client = client;}
+
+    // Balance updates, lock-free and safe from any thread
+
+    // Adds amount (centimes) to the balance
+    public void credit(long amount) {
+        balance.addAndGet(amount);
+    }
+
+    // Takes amount (centimes) from the balance only if it is covered, returns false otherwise
+    public boolean tryDebit(long amount) {
+        long current;
+        do {
+            current = balance.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    // Takes amount (centimes) from the balance unconditionally, for replaying already-checked postings
+    public void debit(long amount) {
+        balance.addAndGet(-amount);
+    }
 }
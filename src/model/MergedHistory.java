@@ -0,0 +1,167 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Transactions of several accounts as one list, produced by a lazy k-way merge of per-account
+ * lists that are each already in the given order (histories are date ordered, repository query
+ * results come back sorted). Nothing is concatenated or sorted: get(i) merges just far enough to
+ * reach entry i, so reading a page costs about offset + limit steps. size() and iterating to the
+ * end merge everything; forEach() streams the merge without keeping what it merged.
+ *
+ * A transfer between two of the merged accounts shows up in both of their lists; it is kept from
+ * the source account's list and skipped in the destination's, so it appears once.
+ */
+public class MergedHistory extends AbstractList<Transaction> implements RandomAccess {
+    private static final Comparator<Transaction> OLDEST_FIRST = Comparator.comparing(Transaction::getDate);
+
+    private final List<Account> accounts;
+    private final List<List<Transaction>> sources;
+    private final Comparator<Transaction> order;
+    private final int[] cursors;
+    private final List<Transaction> merged = new ArrayList<>();
+    private boolean exhausted;
+
+    // sources.get(k) holds the transactions of accounts.get(k), sorted by order
+    public MergedHistory(List<Account> accounts, List<List<Transaction>> sources, Comparator<Transaction> order) {
+        this.accounts = accounts;
+        this.sources = sources;
+        this.order = order;
+        this.cursors = new int[sources.size()];
+    }
+
+    // All the accounts' transactions, oldest first, as of now
+    public static MergedHistory oldestFirst(List<Account> accounts) {
+        List<List<Transaction>> sources = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            sources.add(account.getTransactions().snapshot());
+        }
+        return new MergedHistory(accounts, sources, OLDEST_FIRST);
+    }
+
+    // All the accounts' transactions, newest first, as of now
+    public static MergedHistory newestFirst(List<Account> accounts) {
+        List<List<Transaction>> sources = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            sources.add(account.getTransactions().newestFirst());
+        }
+        return new MergedHistory(accounts, sources, OLDEST_FIRST.reversed());
+    }
+
+    // The accounts' transactions dated from..to inclusive (null for unbounded), oldest first
+    public static MergedHistory between(List<Account> accounts, LocalDateTime from, LocalDateTime to) {
+        List<List<Transaction>> sources = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            sources.add(account.getTransactions().between(from, to));
+        }
+        return new MergedHistory(accounts, sources, OLDEST_FIRST);
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || !fillTo(index + 1)) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return merged.get(index);
+    }
+
+    @Override
+    public int size() {
+        fillTo(Integer.MAX_VALUE);
+        return merged.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !fillTo(1);
+    }
+
+    // Entries [offset, offset + limit), merging only as far as the end of the page
+    public List<Transaction> page(int offset, int limit) {
+        int end = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        fillTo(end);
+        int start = Math.min(offset, merged.size());
+        return new ArrayList<>(merged.subList(start, Math.min(end, merged.size())));
+    }
+
+    // walks lazily instead of asking size() up front
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return fillTo(next + 1);
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return merged.get(next++);
+            }
+        };
+    }
+
+    // a separate pass over the sources that hands entries on as they are merged, in constant memory
+    @Override
+    public void forEach(Consumer<? super Transaction> action) {
+        int[] positions = new int[sources.size()];
+        int best;
+        while ((best = nextSource(positions)) >= 0) {
+            action.accept(sources.get(best).get(positions[best]++));
+        }
+    }
+
+    // merges until `count` entries are available, returns false if the sources run out first
+    private boolean fillTo(int count) {
+        while (merged.size() < count && !exhausted) {
+            int best = nextSource(cursors);
+            if (best < 0) {
+                exhausted = true;
+            } else {
+                merged.add(sources.get(best).get(cursors[best]++));
+            }
+        }
+        return merged.size() >= count;
+    }
+
+    // source whose next entry comes first in order, -1 when all are used up; k is small, a linear pick beats a heap
+    private int nextSource(int[] positions) {
+        int best = -1;
+        Transaction bestTransaction = null;
+        for (int k = 0; k < positions.length; k++) {
+            Transaction candidate = peek(k, positions);
+            if (candidate != null && (best < 0 || order.compare(candidate, bestTransaction) < 0)) {
+                best = k;
+                bestTransaction = candidate;
+            }
+        }
+        return best;
+    }
+
+    // next entry of source k, skipping transfers received from another merged account
+    private Transaction peek(int k, int[] positions) {
+        List<Transaction> source = sources.get(k);
+        Account account = accounts.get(k);
+        while (positions[k] < source.size()) {
+            Transaction transaction = source.get(positions[k]);
+            Account from = transaction.getSourceAccount();
+            if (transaction.getDestinationAccount() != account || from == account || !accounts.contains(from)) {
+                return transaction;
+            }
+            positions[k]++;
+        }
+        return null;
+    }
+}
@@ -10,13 +10,13 @@ import java.util.UUID;
 public class Transaction {
     UUID transactionId;
     TypeTransaction transactionType;
-    double amount;
+    long amount; // in centimes, see util.MoneyUtil
     LocalDateTime date;
     String description;
     Account sourceAccount;
     Account destinationAccount;
 
-    public Transaction(UUID transactionId, TypeTransaction transactionType, double amount, LocalDateTime date, String description, Account sourceAccount, Account destinationAccount) {
+    public Transaction(UUID transactionId, TypeTransaction transactionType, long amount, LocalDateTime date, String description, Account sourceAccount, Account destinationAccount) {
         this.transactionId = transactionId;
         this.transactionType = transactionType;
         this.amount = amount;
@@ -29,7 +29,7 @@ public class Transaction {
     //Getters
     public UUID getTransactionId() {return transactionId;}
     public TypeTransaction getTransactionType() {return transactionType;}
-    public double getAmount() {return amount;}
+    public long getAmount() {return amount;}
     public LocalDateTime getDate() {return date;}
     public String getDescription() {return description;}
     public Account getSourceAccount() {return sourceAccount;}
@@ -38,7 +38,7 @@ public class Transaction {
     //Setters
     public void setTransactionId(UUID transactionId) {this.transactionId = transactionId;}
     public void setTransactionType(TypeTransaction transactionType) {this.transactionType = transactionType;}
-    public void setAmount(double amount) {this.amount = amount;}
+    public void setAmount(long amount) {this.amount = amount;}
     public void setDate(LocalDateTime date) {this.date = date;}
     public void setDescription(String description) {this.description = description;}
     public void setSourceAccount(Account sourceAccount) {this.sourceAccount = sourceAccount;}
@@ -0,0 +1,236 @@
+package model;
+
+import model.enums.TypeTransaction;
+import util.DateUtil;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An account's transactions, kept in date order as they are posted, with a parallel array of
+ * timestamps for binary search by date.
+ *
+ * Postings almost always arrive in date order and are simply appended. One that arrives late
+ * (dated before the newest entry) is inserted into a fresh copy of the arrays instead of shifting
+ * entries in place. Readers never lock: every posting publishes a new store holding the arrays and
+ * the count together, and a position below that count never changes within a given array, so a
+ * reader sees a consistent prefix even while postings are being added.
+ *
+ * Reads as a read-only List in date order; add() appends, every other mutation is unsupported.
+ * Running totals per transaction type are kept as postings are added, so account and client
+ * totals never walk the history.
+ */
+public class TransactionHistory extends AbstractList<Transaction> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 8;
+
+    // items, their epoch nanos and how many of them are posted, published as one; appends share the
+    // arrays with the previous store, growth and late inserts get fresh ones
+    private static final class Store {
+        final Transaction[] items;
+        final long[] nanos;
+        final int size;
+
+        Store(int capacity) {
+            this(new Transaction[capacity], new long[capacity], 0);
+        }
+
+        Store(Transaction[] items, long[] nanos, int size) {
+            this.items = items;
+            this.nanos = nanos;
+            this.size = size;
+        }
+    }
+
+    private volatile Store store = new Store(INITIAL_CAPACITY);
+
+    // centimes per TypeTransaction ordinal, and the part of the transfers made between two accounts of one client
+    private final AtomicLongArray amountByType = new AtomicLongArray(TypeTransaction.values().length);
+    private final AtomicLong ownTransferAmount = new AtomicLong();
+
+    public TransactionHistory() {
+    }
+
+    public TransactionHistory(Collection<Transaction> transactions) {
+        addAll(transactions);
+    }
+
+    @Override
+    public synchronized boolean add(Transaction transaction) {
+        long nanos = DateUtil.toEpochNanos(transaction.getDate());
+        Store current = store;
+        int count = current.size;
+        if (count == 0 || current.nanos[count - 1] <= nanos) {
+            if (count == current.items.length) {
+                current = copy(current, count, count * 2);
+            }
+            current.items[count] = transaction;
+            current.nanos[count] = nanos;
+            store = new Store(current.items, current.nanos, count + 1);
+        } else {
+            // late posting: insert into a copy so readers of the current arrays are not disturbed
+            int position = firstIndexAfter(current, count, nanos);
+            int capacity = count == current.items.length ? count * 2 : current.items.length;
+            Transaction[] items = new Transaction[capacity];
+            long[] times = new long[capacity];
+            System.arraycopy(current.items, 0, items, 0, position);
+            System.arraycopy(current.nanos, 0, times, 0, position);
+            items[position] = transaction;
+            times[position] = nanos;
+            System.arraycopy(current.items, position, items, position + 1, count - position);
+            System.arraycopy(current.nanos, position, times, position + 1, count - position);
+            store = new Store(items, times, count + 1);
+        }
+        amountByType.addAndGet(transaction.getTransactionType().ordinal(), transaction.getAmount());
+        if (isOwnTransfer(transaction)) {
+            ownTransferAmount.addAndGet(transaction.getAmount());
+        }
+        return true;
+    }
+
+    // Total centimes of the given type posted to this history
+    public long totalAmount(TypeTransaction type) {
+        return amountByType.get(type.ordinal());
+    }
+
+    // Total centimes of transfers between two accounts of the same client. Such a transfer is in
+    // both accounts' histories, so client totals subtract half of the sum of this over their accounts.
+    public long ownTransferAmount() {
+        return ownTransferAmount.get();
+    }
+
+    @Override
+    public Transaction get(int index) {
+        Store current = store;
+        if (index < 0 || index >= current.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.size);
+        }
+        return current.items[index];
+    }
+
+    @Override
+    public int size() {
+        return store.size;
+    }
+
+    // iterating walks a snapshot, so concurrent postings never show up half-way
+    @Override
+    public Iterator<Transaction> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator() {
+        return snapshot().spliterator();
+    }
+
+    // Everything posted so far, oldest first, as a fixed view that later postings do not change
+    public List<Transaction> snapshot() {
+        Store current = store;
+        return new View(current, 0, current.size, false);
+    }
+
+    // Same as snapshot(), newest first
+    public List<Transaction> newestFirst() {
+        Store current = store;
+        return new View(current, 0, current.size, true);
+    }
+
+    // Transactions dated from..to inclusive (null for unbounded), oldest first; O(log n) to locate
+    public List<Transaction> between(LocalDateTime from, LocalDateTime to) {
+        Store current = store;
+        int count = current.size;
+        int start = from == null ? 0 : firstIndexAtOrAfter(current, count, DateUtil.toEpochNanos(from));
+        int end = to == null ? count : firstIndexAfter(current, count, DateUtil.toEpochNanos(to));
+        return new View(current, start, Math.max(start, end), false);
+    }
+
+    // Index of the first transaction dated at or after the given date, size() if there is none
+    public int firstIndexAt(LocalDateTime date) {
+        Store current = store;
+        return firstIndexAtOrAfter(current, current.size, DateUtil.toEpochNanos(date));
+    }
+
+    // Walks from newest to oldest over the transactions posted so far
+    public Iterator<Transaction> reverseIterator() {
+        return newestFirst().iterator();
+    }
+
+    private static boolean isOwnTransfer(Transaction transaction) {
+        Account source = transaction.getSourceAccount();
+        Account destination = transaction.getDestinationAccount();
+        return transaction.getTransactionType() == TypeTransaction.TRANSFER
+            && source != null && destination != null && source != destination
+            && source.getClient() != null && destination.getClient() != null
+            && source.getClient().getClientId().equals(destination.getClient().getClientId());
+    }
+
+    private static Store copy(Store current, int count, int capacity) {
+        Store grown = new Store(capacity);
+        System.arraycopy(current.items, 0, grown.items, 0, count);
+        System.arraycopy(current.nanos, 0, grown.nanos, 0, count);
+        return grown;
+    }
+
+    private static int firstIndexAtOrAfter(Store store, int count, long nanos) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (store.nanos[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstIndexAfter(Store store, int count, long nanos) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (store.nanos[mid] <= nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // read-only window [start, end) over one published store, optionally walked newest first
+    private static final class View extends AbstractList<Transaction> implements RandomAccess {
+        private final Store store;
+        private final int start;
+        private final int end;
+        private final boolean reversed;
+
+        View(Store store, int start, int end, boolean reversed) {
+            this.store = store;
+            this.start = start;
+            this.end = end;
+            this.reversed = reversed;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (end - start));
+            }
+            return store.items[reversed ? end - 1 - index : start + index];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
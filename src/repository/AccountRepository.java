@@ -3,6 +3,7 @@ package repository;
 import model.Account;
 import model.Client;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +13,9 @@ public interface AccountRepository {
     // save new account
     void save(Account account);
 
+    // save a batch of new accounts
+    void saveAll(Collection<Account> accounts);
+
     // find account by id
     Optional<Account> findById(UUID id);
 
@@ -2,15 +2,19 @@ package repository;
 
 import model.Client;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ClientRepository {
 
-    // save new client
+    // save new client; throws IllegalArgumentException if another client already has its email
     void save(Client client);
 
+    // save a batch of new clients
+    void saveAll(Collection<Client> clients);
+
     Optional<Client> findById(UUID id);
 
     Optional<Client> findByEmail(String email);
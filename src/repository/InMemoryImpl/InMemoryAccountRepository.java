@@ -1,49 +1,89 @@
 package repository.InMemoryImpl;
 
 import model.Account;
+import model.Client;
 import repository.AccountRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryAccountRepository implements AccountRepository {
-    List<Account> accounts = new ArrayList<>();
+    // primary index: accountId -> account
+    Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // secondary index: clientId -> accounts of that client
+    Map<UUID, Set<Account>> accountsByClient = new ConcurrentHashMap<>();
 
     @Override
     public void save(Account account){
-        accounts.add(account);
+        Account previous = accounts.put(account.getAccountId(), account);
+        if (previous != null && previous != account) {
+            unindexClient(previous);
+        }
+        if (account.getClient() != null) {
+            // compute() keeps the add atomic with unindexClient() dropping an emptied set
+            accountsByClient.compute(account.getClient().getClientId(), (clientId, clientAccounts) -> {
+                Set<Account> set = clientAccounts != null ? clientAccounts : ConcurrentHashMap.newKeySet();
+                set.add(account);
+                return set;
+            });
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Account> batch) {
+        for (Account account : batch) {
+            save(account);
+        }
     }
 
     @Override
     public Optional<Account> findById(UUID id){
-        for (Account account : accounts){
-            if (account.getAccountId().equals(id)){
-                return Optional.of(account);
-            }
+        if (id == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(accounts.get(id));
     }
 
     @Override
-    public List<Account> findByClient(model.Client client){
-        List<Account> clientAccounts = new ArrayList<>();
-        for (Account account : accounts){
-            if (account.getClient().equals(client)){
-                clientAccounts.add(account);
-            }
+    public List<Account> findByClient(Client client){
+        if (client == null) {
+            return new ArrayList<>();
         }
-        return clientAccounts;
+        Set<Account> clientAccounts = accountsByClient.get(client.getClientId());
+        return clientAccounts == null ? new ArrayList<>() : new ArrayList<>(clientAccounts);
     }
 
+    // returns a snapshot, callers can no longer mutate the repository through it
     @Override
     public List<Account> findAll() {
-        return accounts;
+        RepositoryScanEvent event = RepositoryScanEvent.started();
+        List<Account> all = new ArrayList<>(accounts.values());
+        event.commit(this, "findAll", all.size(), all.size());
+        return all;
     }
 
     @Override
     public void delete(UUID id) {
-        accounts.removeIf(account -> account.getAccountId().equals(id));
+        Account removed = accounts.remove(id);
+        if (removed != null) {
+            unindexClient(removed);
+        }
+    }
+
+    // remove an account from the client index, dropping the client entry once it is empty
+    private void unindexClient(Account account) {
+        if (account.getClient() == null) {
+            return;
+        }
+        accountsByClient.computeIfPresent(account.getClient().getClientId(), (clientId, clientAccounts) -> {
+            clientAccounts.remove(account);
+            return clientAccounts.isEmpty() ? null : clientAccounts;
+        });
     }
 }
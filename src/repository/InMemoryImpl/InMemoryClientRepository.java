@@ -4,46 +4,95 @@ import model.Client;
 import repository.ClientRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class InMemoryClientRepository implements ClientRepository {
-    List<Client> clients = new ArrayList<>();
+    // primary index: clientId -> client
+    Map<UUID, Client> clients = new ConcurrentHashMap<>();
+    // secondary index: normalized email -> client, also how an email is claimed
+    Map<String, Client> clientsByEmail = new ConcurrentHashMap<>();
+    // clients in the order they were first saved, for listing
+    private final ConcurrentSkipListMap<Long, Client> clientsInOrder = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Long> registrationOrder = new ConcurrentHashMap<>();
+    private final AtomicLong nextRegistration = new AtomicLong();
 
+    // The email is claimed with putIfAbsent before the client is stored, so of two clients saved at
+    // once with the same email exactly one wins; the other gets an IllegalArgumentException.
     @Override
     public void save(Client client){
-        clients.add(client);
+        String email = client.getEmail() == null ? null : normalizeEmail(client.getEmail());
+        if (email != null) {
+            Client owner = clientsByEmail.putIfAbsent(email, client);
+            if (owner != null && owner != client) {
+                if (!owner.getClientId().equals(client.getClientId())) {
+                    throw new IllegalArgumentException("Email already exists: " + client.getEmail());
+                }
+                // the same client saved again as a new object, e.g. restored from a snapshot
+                clientsByEmail.replace(email, owner, client);
+            }
+        }
+        Client previous = clients.put(client.getClientId(), client);
+        if (previous != null && previous.getEmail() != null && !normalizeEmail(previous.getEmail()).equals(email)) {
+            clientsByEmail.remove(normalizeEmail(previous.getEmail()), previous);
+        }
+        Long order = registrationOrder.computeIfAbsent(client.getClientId(), id -> nextRegistration.incrementAndGet());
+        clientsInOrder.put(order, client);
+    }
+
+    @Override
+    public void saveAll(Collection<Client> batch) {
+        for (Client client : batch) {
+            save(client);
+        }
     }
 
     @Override
     public Optional<Client> findById(UUID id){
-        for (Client client : clients){
-            if (client.getClientId().equals(id)){
-                return Optional.of(client);
-            }
+        if (id == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(clients.get(id));
     }
 
+    // emails are matched case-insensitively and ignoring surrounding spaces
     @Override
     public Optional<Client> findByEmail(String email){
-        for (Client client : clients){
-            if (client.getEmail().equals(email)){
-                return  Optional.of(client);
-            }
+        if (email == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(clientsByEmail.get(normalizeEmail(email)));
     }
 
+    // returns a snapshot in registration order, callers can no longer mutate the repository through it
     @Override
     public List<Client> findAll(){
-        return  clients;
+        RepositoryScanEvent event = RepositoryScanEvent.started();
+        List<Client> all = new ArrayList<>(clientsInOrder.values());
+        event.commit(this, "findAll", all.size(), all.size());
+        return all;
     }
 
-    // delete client by id using removeIf(): lambda expression
     @Override
     public void delete(UUID id) {
-        clients.removeIf(client -> client.getClientId().equals(id));
+        Client removed = clients.remove(id);
+        if (removed != null && removed.getEmail() != null) {
+            clientsByEmail.remove(normalizeEmail(removed.getEmail()), removed);
+        }
+        Long order = registrationOrder.remove(id);
+        if (order != null) {
+            clientsInOrder.remove(order);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 }
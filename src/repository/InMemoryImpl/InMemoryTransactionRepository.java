@@ -1,34 +1,187 @@
 package repository.InMemoryImpl;
 
+import model.Account;
 import model.Transaction;
+import model.TransactionHistory;
+import repository.TransactionQuery;
 import repository.TransactionRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 public class InMemoryTransactionRepository implements TransactionRepository {
-    List<Transaction> transactions = new ArrayList<>();
+    // rows saved since the last index merge before one is started in the background
+    private static final int MIN_MERGE_ROWS = 4096;
+
+    // lock-free append so concurrent postings on different accounts don't serialize here
+    Queue<Transaction> transactions = new ConcurrentLinkedQueue<>();
+    // secondary index: accountId -> transactions touching that account, ordered by date
+    Map<UUID, TransactionHistory> transactionsByAccount = new ConcurrentHashMap<>();
+
+    // query index over the ledger: an immutable LedgerIndex plus the rows saved since it was built.
+    // Saves and queries share the read lock; only swapping the recent rows in and out takes the write lock.
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private volatile LedgerIndex index = LedgerIndex.EMPTY;
+    private Queue<Transaction> recent = new ConcurrentLinkedQueue<>();
+    private List<Transaction> merging = List.of();
+    private final AtomicInteger recentCount = new AtomicInteger();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private volatile ExecutorService merger;
 
     @Override
     public void save(Transaction transaction) {
-        transactions.add(transaction);
+        indexLock.readLock().lock();
+        try {
+            transactions.add(transaction);
+            recent.add(transaction);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        Account source = transaction.getSourceAccount();
+        Account destination = transaction.getDestinationAccount();
+        if (source != null) {
+            index(source.getAccountId(), transaction);
+        }
+        if (destination != null && destination != source) {
+            index(destination.getAccountId(), transaction);
+        }
+        if (recentCount.incrementAndGet() >= mergeThreshold() && mergeScheduled.compareAndSet(false, true)) {
+            merger().execute(this::mergeRecent);
+        }
     }
 
     @Override
     public List<Transaction> findByAccountId(UUID accountId) {
-        List<Transaction> accountTransactions = new ArrayList<>();
-        for (Transaction transaction : transactions) {
-            if (transaction.getTransactionId().equals(accountId)){
-                accountTransactions.add(transaction);
-            }
-        }
-        return accountTransactions;
+        TransactionHistory accountTransactions = transactionsByAccount.get(accountId);
+        return accountTransactions == null ? new ArrayList<>() : new ArrayList<>(accountTransactions.snapshot());
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdBetween(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        TransactionHistory accountTransactions = transactionsByAccount.get(accountId);
+        return accountTransactions == null ? new ArrayList<>() : new ArrayList<>(accountTransactions.between(from, to));
     }
 
+    // returns a snapshot, callers can no longer mutate the ledger through it
     @Override
     public  List<Transaction> findAll(){
-        return transactions;
+        RepositoryScanEvent event = RepositoryScanEvent.started();
+        List<Transaction> all = new ArrayList<>(transactions);
+        event.commit(this, "findAll", all.size(), all.size());
+        return all;
+    }
+
+    @Override
+    public List<Transaction> query(TransactionQuery query) {
+        LedgerIndex base;
+        List<Transaction> recentRows;
+        indexLock.readLock().lock();
+        try {
+            base = index;
+            recentRows = new ArrayList<>(merging);
+            recentRows.addAll(recent);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        RepositoryScanEvent event = RepositoryScanEvent.started();
+        LedgerQueryPlanner planner = new LedgerQueryPlanner(query, base, recentRows, transactionsByAccount::get);
+        List<Transaction> matches = planner.execute();
+        if (planner.getPath() == LedgerQueryPlanner.AccessPath.SCAN) {
+            event.commit(this, "query", base.size + (long) recentRows.size(), matches.size());
+        }
+        return matches;
+    }
+
+    // walks the account's history, or the ledger queue itself (weakly consistent, never copied)
+    @Override
+    public void scan(TransactionQuery query, Consumer<Transaction> visitor) {
+        Iterable<Transaction> source = transactions;
+        if (query.getAccountId() != null) {
+            TransactionHistory history = transactionsByAccount.get(query.getAccountId());
+            if (history == null) {
+                return;
+            }
+            source = history.between(query.getFrom(), query.getTo());
+        }
+        RepositoryScanEvent event = RepositoryScanEvent.started();
+        long rows = 0;
+        long matches = 0;
+        for (Transaction transaction : source) {
+            rows++;
+            if (query.matches(transaction)) {
+                matches++;
+                visitor.accept(transaction);
+            }
+        }
+        if (source == transactions) {
+            event.commit(this, "scan", rows, matches);
+        }
+    }
+
+    // the history keeps itself in date order, late postings included
+    private void index(UUID accountId, Transaction transaction) {
+        transactionsByAccount.computeIfAbsent(accountId, id -> new TransactionHistory()).add(transaction);
+    }
+
+    // the index is rebuilt once the recent rows reach an eighth of it, so merging stays amortized O(1) per row
+    private int mergeThreshold() {
+        return Math.max(MIN_MERGE_ROWS, index.size / 8);
     }
 
+    // Folds the recent rows into a new index. Queries keep seeing them through `merging` while the
+    // new index is built outside the lock.
+    private void mergeRecent() {
+        try {
+            List<Transaction> batch;
+            LedgerIndex current;
+            indexLock.writeLock().lock();
+            try {
+                batch = new ArrayList<>(recent);
+                recent = new ConcurrentLinkedQueue<>();
+                merging = batch;
+                current = index;
+                recentCount.addAndGet(-batch.size());
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            LedgerIndex merged = current.merge(batch);
+            indexLock.writeLock().lock();
+            try {
+                index = merged;
+                merging = List.of();
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        } finally {
+            mergeScheduled.set(false);
+        }
+    }
+
+    private ExecutorService merger() {
+        if (merger == null) {
+            synchronized (this) {
+                if (merger == null) {
+                    merger = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "ledger-index");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return merger;
+    }
 }
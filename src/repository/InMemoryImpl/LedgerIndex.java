@@ -0,0 +1,165 @@
+package repository.InMemoryImpl;
+
+import model.Transaction;
+import model.enums.TypeTransaction;
+import util.DateUtil;
+
+import java.util.List;
+
+/**
+ * Immutable index over a prefix of the ledger. Rows are stored in date order, which makes the row
+ * position itself the time index (binary search over nanos). On top of that:
+ *  - one bitmap per transaction type over row positions, with its cardinality
+ *  - row positions sorted by amount (ties in date order), binary searchable through amounts
+ *
+ * A new index is built by merging a batch of newer rows into the previous one, O(n + k log k):
+ * the date order and the amount order are both two-way merges, only the bitmaps are rebuilt.
+ */
+final class LedgerIndex {
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+
+    static final LedgerIndex EMPTY = new LedgerIndex(0);
+
+    final int size;
+    final Transaction[] rows;
+    final long[] nanos;
+    final long[] amounts;
+    final long[][] typeBits;
+    final int[] typeCounts;
+    final int[] byAmount;
+
+    private LedgerIndex(int size) {
+        this.size = size;
+        this.rows = new Transaction[size];
+        this.nanos = new long[size];
+        this.amounts = new long[size];
+        this.typeBits = new long[TYPES.length][(size + 63) >>> 6];
+        this.typeCounts = new int[TYPES.length];
+        this.byAmount = new int[size];
+    }
+
+    LedgerIndex merge(List<Transaction> added) {
+        int addedCount = added.size();
+        Transaction[] addedRows = added.toArray(new Transaction[0]);
+        long[] addedNanos = new long[addedCount];
+        for (int i = 0; i < addedCount; i++) {
+            addedNanos[i] = DateUtil.toEpochNanos(addedRows[i].getDate());
+        }
+        int[] addedByDate = identity(addedCount);
+        sortPositions(addedByDate, addedNanos);
+
+        // date order: merge the old rows with the new ones, remembering where each lands
+        LedgerIndex merged = new LedgerIndex(size + addedCount);
+        int[] oldToNew = new int[size];
+        int[] addedToNew = new int[addedCount];
+        int i = 0;
+        int j = 0;
+        for (int row = 0; row < merged.size; row++) {
+            if (j == addedCount || (i < size && nanos[i] <= addedNanos[addedByDate[j]])) {
+                merged.rows[row] = rows[i];
+                merged.nanos[row] = nanos[i];
+                merged.amounts[row] = amounts[i];
+                oldToNew[i++] = row;
+            } else {
+                int k = addedByDate[j++];
+                merged.rows[row] = addedRows[k];
+                merged.nanos[row] = addedNanos[k];
+                merged.amounts[row] = addedRows[k].getAmount();
+                addedToNew[k] = row;
+            }
+            int type = merged.rows[row].getTransactionType().ordinal();
+            merged.typeBits[type][row >>> 6] |= 1L << row;
+            merged.typeCounts[type]++;
+        }
+
+        // amount order: the old order, remapped, merged with the new rows sorted by amount.
+        // The new rows start in position order so the stable sort leaves ties in date order.
+        int[] addedByAmount = new int[addedCount];
+        for (int k = 0; k < addedCount; k++) {
+            addedByAmount[k] = addedToNew[addedByDate[k]];
+        }
+        sortPositions(addedByAmount, merged.amounts);
+        i = 0;
+        j = 0;
+        for (int position = 0; position < merged.size; position++) {
+            int fromOld = i < size ? oldToNew[byAmount[i]] : -1;
+            int fromAdded = j < addedCount ? addedByAmount[j] : -1;
+            if (fromAdded < 0 || (fromOld >= 0 && compareByAmount(merged, fromOld, fromAdded) <= 0)) {
+                merged.byAmount[position] = fromOld;
+                i++;
+            } else {
+                merged.byAmount[position] = fromAdded;
+                j++;
+            }
+        }
+        return merged;
+    }
+
+    // first row dated at or after nanos
+    int firstRowAtOrAfter(long targetNanos) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nanos[mid] < targetNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first position in amount order with an amount at or above the given one
+    int firstAmountAtOrAbove(long amount) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (amounts[byAmount[mid]] < amount) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    boolean hasType(int type, int row) {
+        return (typeBits[type][row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static int compareByAmount(LedgerIndex index, int a, int b) {
+        int byAmount = Long.compare(index.amounts[a], index.amounts[b]);
+        return byAmount != 0 ? byAmount : Integer.compare(a, b);
+    }
+
+    private static int[] identity(int count) {
+        int[] positions = new int[count];
+        for (int k = 0; k < count; k++) {
+            positions[k] = k;
+        }
+        return positions;
+    }
+
+    // stable merge sort of positions by keys[position]
+    private static void sortPositions(int[] positions, long[] keys) {
+        int[] buffer = new int[positions.length];
+        for (int width = 1; width < positions.length; width *= 2) {
+            for (int low = 0; low < positions.length; low += 2 * width) {
+                int mid = Math.min(low + width, positions.length);
+                int high = Math.min(low + 2 * width, positions.length);
+                int left = low;
+                int right = mid;
+                for (int out = low; out < high; out++) {
+                    if (right >= high || (left < mid && keys[positions[left]] <= keys[positions[right]])) {
+                        buffer[out] = positions[left++];
+                    } else {
+                        buffer[out] = positions[right++];
+                    }
+                }
+            }
+            System.arraycopy(buffer, 0, positions, 0, positions.length);
+        }
+    }
+}
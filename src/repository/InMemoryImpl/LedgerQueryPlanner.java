@@ -0,0 +1,201 @@
+package repository.InMemoryImpl;
+
+import model.Transaction;
+import model.TransactionHistory;
+import model.enums.TypeTransaction;
+import repository.TransactionQuery;
+import util.DateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Runs a TransactionQuery against a LedgerIndex plus the rows saved since it was built.
+ *
+ * The planner estimates how many rows each access path would visit and takes the smallest:
+ *  - ACCOUNT: the account's (or counterparty's) date-ordered history, which already covers the recent rows
+ *  - DATE:    the row range between the two dates, found by binary search
+ *  - AMOUNT:  the range of the amount order between the two amounts, found by binary search
+ *  - TYPE:    the type bitmaps, walked a word at a time inside the date range
+ *  - SCAN:    every row
+ * Each candidate is then checked with query.matches(). When the path already yields rows in the
+ * requested order, the walk stops as soon as the page is full.
+ */
+final class LedgerQueryPlanner {
+
+    enum AccessPath { ACCOUNT, DATE, AMOUNT, TYPE, SCAN }
+
+    private final TransactionQuery query;
+    private final LedgerIndex index;
+    private final List<Transaction> recent;
+    private final List<Transaction> history;
+
+    // date range of the index, [dateStart, dateEnd)
+    private final int dateStart;
+    private final int dateEnd;
+    // amount range of the index, [amountStart, amountEnd) in amount order
+    private final int amountStart;
+    private final int amountEnd;
+    private final int typeRows;
+    private final AccessPath path;
+
+    LedgerQueryPlanner(TransactionQuery query, LedgerIndex index, List<Transaction> recent,
+                       Function<UUID, TransactionHistory> histories) {
+        this.query = query;
+        this.index = index;
+        this.recent = recent;
+
+        UUID accountId = query.getAccountId() != null ? query.getAccountId() : query.getCounterpartyId();
+        if (accountId != null) {
+            TransactionHistory accountHistory = histories.apply(accountId);
+            this.history = accountHistory == null ? List.of() : accountHistory.between(query.getFrom(), query.getTo());
+        } else {
+            this.history = null;
+        }
+
+        this.dateStart = query.getFrom() == null ? 0 : index.firstRowAtOrAfter(DateUtil.toEpochNanos(query.getFrom()));
+        this.dateEnd = Math.max(dateStart,
+            query.getTo() == null ? index.size : index.firstRowAtOrAfter(DateUtil.toEpochNanos(query.getTo()) + 1));
+        this.amountStart = query.getMinAmount() == Long.MIN_VALUE ? 0 : index.firstAmountAtOrAbove(query.getMinAmount());
+        this.amountEnd = Math.max(amountStart,
+            query.getMaxAmount() == Long.MAX_VALUE ? index.size : index.firstAmountAtOrAbove(query.getMaxAmount() + 1));
+        int rowsOfTypes = 0;
+        for (TypeTransaction type : query.getTypes()) {
+            rowsOfTypes += index.typeCounts[type.ordinal()];
+        }
+        this.typeRows = rowsOfTypes;
+        this.path = choosePath();
+    }
+
+    AccessPath getPath() {return path;}
+
+    List<Transaction> execute() {
+        if (path == AccessPath.ACCOUNT) {
+            return fromHistory();
+        }
+        List<Transaction> matches = new ArrayList<>();
+        boolean ordered;
+        if (path == AccessPath.AMOUNT) {
+            ordered = walkAmountOrder(matches);
+        } else {
+            ordered = walkDateOrder(matches);
+        }
+        // recent rows are few; any that match join the base matches before the final sort
+        int baseMatches = matches.size();
+        for (Transaction transaction : recent) {
+            if (query.matches(transaction)) {
+                matches.add(transaction);
+            }
+        }
+        return ordered && matches.size() == baseMatches ? query.page(matches) : query.sortAndPage(matches);
+    }
+
+    private AccessPath choosePath() {
+        long best = index.size + (long) recent.size();
+        AccessPath chosen = AccessPath.SCAN;
+        if (history != null && history.size() <= best) {
+            best = history.size();
+            chosen = AccessPath.ACCOUNT;
+        }
+        if (query.hasDateRange() && dateEnd - dateStart < best) {
+            best = dateEnd - dateStart;
+            chosen = AccessPath.DATE;
+        }
+        if (query.hasAmountRange() && amountEnd - amountStart < best) {
+            best = amountEnd - amountStart;
+            chosen = AccessPath.AMOUNT;
+        }
+        if (!query.isAllTypes() && Math.min(typeRows, dateEnd - dateStart) < best) {
+            chosen = AccessPath.TYPE;
+        }
+        return chosen;
+    }
+
+    // the history is in date order, so date sorts stop once the page is full
+    private List<Transaction> fromHistory() {
+        List<Transaction> matches = new ArrayList<>();
+        boolean dateSort = isDateSort();
+        boolean descending = query.getSort() == TransactionQuery.Sort.DATE_DESC;
+        int pageEnd = query.getPageEnd();
+        int count = history.size();
+        for (int k = 0; k < count; k++) {
+            Transaction transaction = history.get(descending ? count - 1 - k : k);
+            if (query.matches(transaction)) {
+                matches.add(transaction);
+                if (dateSort && matches.size() >= pageEnd) {
+                    break;
+                }
+            }
+        }
+        return dateSort ? query.page(matches) : query.sortAndPage(matches);
+    }
+
+    // rows in [dateStart, dateEnd), skipping whole bitmap words of other types on the TYPE path
+    private boolean walkDateOrder(List<Transaction> matches) {
+        boolean dateSort = isDateSort();
+        boolean descending = query.getSort() == TransactionQuery.Sort.DATE_DESC;
+        long[] typeMask = path == AccessPath.TYPE ? typeMask() : null;
+        int pageEnd = query.getPageEnd();
+        int span = dateEnd - dateStart;
+        for (int k = 0; k < span; k++) {
+            int row = descending ? dateEnd - 1 - k : dateStart + k;
+            if (typeMask != null) {
+                long word = typeMask[row >>> 6];
+                if (word == 0) {
+                    // no row of a wanted type left in this word: jump to its edge
+                    k += descending ? (row & 63) : 63 - (row & 63);
+                    continue;
+                }
+                if ((word & (1L << row)) == 0) {
+                    continue;
+                }
+            }
+            Transaction transaction = index.rows[row];
+            if (query.matches(transaction)) {
+                matches.add(transaction);
+                if (dateSort && matches.size() >= pageEnd) {
+                    break;
+                }
+            }
+        }
+        return dateSort;
+    }
+
+    // positions [amountStart, amountEnd) of the amount order, walked backwards for AMOUNT_DESC
+    private boolean walkAmountOrder(List<Transaction> matches) {
+        boolean amountSort = query.getSort() == TransactionQuery.Sort.AMOUNT_ASC
+            || query.getSort() == TransactionQuery.Sort.AMOUNT_DESC;
+        boolean descending = query.getSort() == TransactionQuery.Sort.AMOUNT_DESC;
+        int pageEnd = query.getPageEnd();
+        int span = amountEnd - amountStart;
+        for (int k = 0; k < span; k++) {
+            int row = index.byAmount[descending ? amountEnd - 1 - k : amountStart + k];
+            Transaction transaction = index.rows[row];
+            if (query.matches(transaction)) {
+                matches.add(transaction);
+                if (amountSort && matches.size() >= pageEnd) {
+                    break;
+                }
+            }
+        }
+        return amountSort;
+    }
+
+    // union of the bitmaps of the wanted types
+    private long[] typeMask() {
+        long[] mask = new long[(index.size + 63) >>> 6];
+        for (TypeTransaction type : query.getTypes()) {
+            long[] bits = index.typeBits[type.ordinal()];
+            for (int w = 0; w < mask.length; w++) {
+                mask[w] |= bits[w];
+            }
+        }
+        return mask;
+    }
+
+    private boolean isDateSort() {
+        return query.getSort() == TransactionQuery.Sort.DATE_ASC || query.getSort() == TransactionQuery.Sort.DATE_DESC;
+    }
+}
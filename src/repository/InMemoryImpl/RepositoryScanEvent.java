@@ -0,0 +1,51 @@
+package repository.InMemoryImpl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a walk over a whole repository: findAll, and ledger-wide scans and
+ * queries that name no account. The stack trace is kept so a recording shows which caller asked
+ * for the full scan. Disabled by default.
+ */
+@Name("bank.RepositoryScan")
+@Label("Repository Scan")
+@Category({"Bank", "Repositories"})
+@Description("findAll or a ledger-wide scan over an in-memory repository")
+@Enabled(false)
+final class RepositoryScanEvent extends Event {
+    @Label("Repository")
+    String repository;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    @Description("Rows in the range the scan covered")
+    long rows;
+
+    @Label("Matches")
+    @Description("Rows returned, or handed to the visitor")
+    long matches;
+
+    static RepositoryScanEvent started() {
+        RepositoryScanEvent event = new RepositoryScanEvent();
+        event.begin();
+        return event;
+    }
+
+    // fills in the scan and commits it, when a recording wants this event
+    void commit(Object repository, String operation, long rows, long matches) {
+        if (shouldCommit()) {
+            this.repository = repository.getClass().getSimpleName();
+            this.operation = operation;
+            this.rows = rows;
+            this.matches = matches;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package repository;
+
+import model.Account;
+import model.Transaction;
+import model.enums.TypeTransaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Structured transaction query: transaction types, amount range (centimes), date range,
+ * account, counterparty, sort order and a page (offset/limit). Every criterion is optional.
+ * Repositories use the criteria to pick an index; matches() is the complete filter.
+ *
+ *   new TransactionQuery().types(TypeTransaction.TRANSFER).amountBetween(MoneyUtil.ofDh(5000), Long.MAX_VALUE)
+ *       .sortBy(TransactionQuery.Sort.AMOUNT_DESC).page(0, 20)
+ */
+public class TransactionQuery {
+
+    public enum Sort { DATE_ASC, DATE_DESC, AMOUNT_ASC, AMOUNT_DESC }
+
+    private static final Comparator<Transaction> BY_DATE = Comparator.comparing(Transaction::getDate);
+    private static final Comparator<Transaction> BY_AMOUNT = Comparator.comparingLong(Transaction::getAmount)
+        .thenComparing(Transaction::getDate);
+
+    private Set<TypeTransaction> types = EnumSet.allOf(TypeTransaction.class);
+    private long minAmount = Long.MIN_VALUE;
+    private long maxAmount = Long.MAX_VALUE;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private UUID accountId;
+    private UUID counterpartyId;
+    private Sort sort = Sort.DATE_ASC;
+    private int offset = 0;
+    private int limit = Integer.MAX_VALUE;
+
+    public TransactionQuery types(TypeTransaction... selected) {
+        this.types = selected.length == 0 ? EnumSet.allOf(TypeTransaction.class) : EnumSet.of(selected[0], selected);
+        return this;
+    }
+
+    // amounts in centimes, inclusive
+    public TransactionQuery amountBetween(long min, long max) {
+        this.minAmount = min;
+        this.maxAmount = max;
+        return this;
+    }
+
+    // inclusive, null for unbounded
+    public TransactionQuery dateBetween(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    // transactions touching this account, as source or destination
+    public TransactionQuery account(UUID accountId) {
+        this.accountId = accountId;
+        return this;
+    }
+
+    // transactions with this account on the other side: of the queried account if there is one, else on either side
+    public TransactionQuery counterparty(UUID counterpartyId) {
+        this.counterpartyId = counterpartyId;
+        return this;
+    }
+
+    public TransactionQuery sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    public TransactionQuery page(int offset, int limit) {
+        this.offset = Math.max(offset, 0);
+        this.limit = Math.max(limit, 0);
+        return this;
+    }
+
+    // independent copy, to run the same criteria with a different account or page
+    public TransactionQuery copy() {
+        TransactionQuery copy = new TransactionQuery();
+        copy.types = EnumSet.copyOf(types);
+        copy.minAmount = minAmount;
+        copy.maxAmount = maxAmount;
+        copy.from = from;
+        copy.to = to;
+        copy.accountId = accountId;
+        copy.counterpartyId = counterpartyId;
+        copy.sort = sort;
+        copy.offset = offset;
+        copy.limit = limit;
+        return copy;
+    }
+
+    //Getters
+    public Set<TypeTransaction> getTypes() {return types;}
+    public long getMinAmount() {return minAmount;}
+    public long getMaxAmount() {return maxAmount;}
+    public LocalDateTime getFrom() {return from;}
+    public LocalDateTime getTo() {return to;}
+    public UUID getAccountId() {return accountId;}
+    public UUID getCounterpartyId() {return counterpartyId;}
+    public Sort getSort() {return sort;}
+    public int getOffset() {return offset;}
+    public int getLimit() {return limit;}
+
+    public boolean hasAmountRange() {
+        return minAmount != Long.MIN_VALUE || maxAmount != Long.MAX_VALUE;
+    }
+
+    public boolean hasDateRange() {
+        return from != null || to != null;
+    }
+
+    public boolean isAllTypes() {
+        return types.size() == TypeTransaction.values().length;
+    }
+
+    // offset + limit, the number of sorted matches needed to fill the page
+    public int getPageEnd() {
+        return (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+    }
+
+    public boolean matches(Transaction transaction) {
+        if (!types.contains(transaction.getTransactionType())) {
+            return false;
+        }
+        if (transaction.getAmount() < minAmount || transaction.getAmount() > maxAmount) {
+            return false;
+        }
+        if (from != null && transaction.getDate().isBefore(from)) {
+            return false;
+        }
+        if (to != null && transaction.getDate().isAfter(to)) {
+            return false;
+        }
+        UUID source = idOf(transaction.getSourceAccount());
+        UUID destination = idOf(transaction.getDestinationAccount());
+        if (accountId != null && !accountId.equals(source) && !accountId.equals(destination)) {
+            return false;
+        }
+        if (counterpartyId != null) {
+            if (accountId != null) {
+                UUID other = accountId.equals(source) ? destination : source;
+                return counterpartyId.equals(other);
+            }
+            return counterpartyId.equals(source) || counterpartyId.equals(destination);
+        }
+        return true;
+    }
+
+    public Comparator<Transaction> comparator() {
+        switch (sort) {
+            case DATE_DESC:
+                return BY_DATE.reversed();
+            case AMOUNT_ASC:
+                return BY_AMOUNT;
+            case AMOUNT_DESC:
+                return BY_AMOUNT.reversed();
+            default:
+                return BY_DATE;
+        }
+    }
+
+    // sorts matches found in no particular order and cuts the requested page out of them
+    public List<Transaction> sortAndPage(List<Transaction> matches) {
+        matches.sort(comparator());
+        return page(matches);
+    }
+
+    // cuts the requested page out of matches already in query order
+    public List<Transaction> page(List<Transaction> sortedMatches) {
+        int start = Math.min(offset, sortedMatches.size());
+        int end = Math.min(getPageEnd(), sortedMatches.size());
+        return new ArrayList<>(sortedMatches.subList(start, end));
+    }
+
+    private static UUID idOf(Account account) {
+        return account != null ? account.getAccountId() : null;
+    }
+}
@@ -2,17 +2,29 @@ package repository;
 
 import model.Transaction;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface TransactionRepository {
 
     // save new transaction
     void save(Transaction transaction);
 
-    // find transactions by account id
+    // find transactions by account id (source or destination), oldest first
     List<Transaction> findByAccountId(UUID accountId);
 
+    // find transactions of an account dated within [from, to], oldest first
+    List<Transaction> findByAccountIdBetween(UUID accountId, LocalDateTime from, LocalDateTime to);
+
     // find all transactions
     List<Transaction> findAll();
+
+    // transactions matching every criterion of the query, sorted and paged as it asks
+    List<Transaction> query(TransactionQuery query);
+
+    // hands each transaction matching the query's criteria to the visitor as it is read, nothing is
+    // collected; sort and page are ignored (account queries come in date order, the ledger in posting order)
+    void scan(TransactionQuery query, Consumer<Transaction> visitor);
 }
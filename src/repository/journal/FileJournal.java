@@ -0,0 +1,266 @@
+package repository.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal with group commit.
+ *
+ * Callers queue records and wait on the returned future. A single writer thread drains
+ * everything queued since its last flush, writes it in one go and issues one fsync for
+ * the whole batch, so concurrent postings share the cost of a disk flush.
+ *
+ * On disk each record is framed as [int length][payload][int crc32(payload)]. A torn or
+ * corrupt tail left by a crash is detected on open and cut off.
+ *
+ * A batch that fails to write or sync is cut off the file again before its callers hear about
+ * it, so postings they roll back are never replayed and the next batch starts on a record
+ * boundary. If even that fails, or a record cannot be encoded, the journal stops accepting records.
+ */
+public class FileJournal implements Journal, AutoCloseable {
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long recoveredLength;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Pending shutdown = new Pending(null);
+    // striped, so postings on different threads share no lock word
+    private final ReadWriteLock stateLock = new StripedStateLock();
+    private final Thread writer;
+    private volatile long durableLength;
+    // set once the file could not be brought back to durableLength after a failed write
+    private volatile IOException failure;
+    private long nextSequence;
+    private boolean closed;
+
+    private FileJournal(Path path, FileChannel channel, long recoveredLength, long lastSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.recoveredLength = recoveredLength;
+        this.durableLength = recoveredLength;
+        this.nextSequence = lastSequence;
+        this.writer = new Thread(this::writeLoop, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // open (or create) the journal, dropping any incomplete record at its end
+    public static FileJournal open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long[] lastSequence = {0};
+        long validLength;
+        try (InputStream in = Files.newInputStream(path)) {
+            validLength = scan(in, Long.MAX_VALUE, record -> lastSequence[0] = record.sequence);
+        }
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new FileJournal(path, channel, validLength, lastSequence[0]);
+    }
+
+    @Override
+    public CompletableFuture<Void> append(JournalRecord record) {
+        Pending pending = new Pending(record);
+        // sequence numbers follow queue order, which is also file order
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Journal is closed: " + path));
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new IOException("Journal has failed: " + path, failure));
+            }
+            record.sequence = ++nextSequence;
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    // replays the records that were on disk when the journal was opened, from a record boundary
+    @Override
+    public void replay(long fromOffset, Consumer<JournalRecord> consumer) throws IOException {
+        if (fromOffset >= recoveredLength) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            in.skipNBytes(fromOffset);
+            scan(in, recoveredLength - fromOffset, consumer);
+        }
+    }
+
+    @Override
+    public long position() {
+        return durableLength;
+    }
+
+    @Override
+    public synchronized long lastSequence() {
+        return nextSequence;
+    }
+
+    @Override
+    public ReadWriteLock stateLock() {
+        return stateLock;
+    }
+
+    // flushes what is queued, then stops the writer
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(shutdown);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        ByteArrayOutputStream frames = new ByteArrayOutputStream(64 * 1024);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        CRC32 crc = new CRC32();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            frames.reset();
+            try {
+                if (failure != null) {
+                    throw new IOException("Journal has failed: " + path, failure);
+                }
+                DataOutputStream frameOut = new DataOutputStream(frames);
+                for (Pending pending : batch) {
+                    if (pending == shutdown) {
+                        running = false;
+                        continue;
+                    }
+                    payload.reset();
+                    pending.record.writeTo(new DataOutputStream(payload));
+                    crc.reset();
+                    crc.update(payload.toByteArray());
+                    frameOut.writeInt(payload.size());
+                    payload.writeTo(frameOut);
+                    frameOut.writeInt((int) crc.getValue());
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                // one fsync for the whole batch: this is the group commit
+                channel.force(false);
+                durableLength = channel.position();
+                for (Pending pending : batch) {
+                    pending.done.complete(null);
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    rollBack(e);
+                }
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+                // a failed journal still has to let close() through
+                running &= !batch.contains(shutdown);
+            } catch (RuntimeException e) {
+                // a record that cannot be encoded is a bug, not a disk problem: fail the batch and stop
+                // taking records rather than let this thread die and leave every caller waiting
+                IOException broken = new IOException("Journal writer failed: " + path, e);
+                if (failure == null) {
+                    rollBack(broken);
+                    failure = broken;
+                }
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(broken);
+                }
+                running &= !batch.contains(shutdown);
+            }
+            batch.clear();
+        }
+    }
+
+    // cuts the failed batch off the file, whether it was written in full, in part or not at all
+    private void rollBack(IOException cause) {
+        try {
+            channel.truncate(durableLength);
+            channel.position(durableLength);
+            channel.force(true);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    // reads framed records up to limit bytes and returns the length of the valid prefix
+    private static long scan(InputStream raw, long limit, Consumer<JournalRecord> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024));
+        CRC32 crc = new CRC32();
+        long offset = 0;
+        while (offset < limit) {
+            byte[] payload;
+            int checksum;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                break; // torn write at the end of the file
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            consumer.accept(JournalRecord.readFrom(new DataInputStream(new ByteArrayInputStream(payload))));
+            offset += 4 + payload.length + 4;
+        }
+        return offset;
+    }
+
+    private static class Pending {
+        final JournalRecord record;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(JournalRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package repository.journal;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+public interface Journal {
+
+    // journal that keeps nothing, for setups that do not need durability
+    Journal NONE = new NoJournal();
+
+    // queue a record; the future completes once it is durable on disk
+    CompletableFuture<Void> append(JournalRecord record);
+
+    // feed the records on disk starting at the given byte offset to the consumer, oldest first
+    void replay(long fromOffset, Consumer<JournalRecord> consumer) throws IOException;
+
+    // number of bytes made durable so far, i.e. where the next record will start
+    long position();
+
+    // sequence number of the last record handed to the journal
+    long lastSequence();
+
+    // held shared by writers while they change state and journal it, exclusively by checkpoints
+    ReadWriteLock stateLock();
+}
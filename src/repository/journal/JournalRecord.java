@@ -0,0 +1,198 @@
+package repository.journal;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import util.DateUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * One entry of the write-ahead journal. A posting carries both legs of a transfer
+ * (source debit and destination credit) so it is written and replayed as a single unit.
+ */
+public class JournalRecord {
+
+    public enum Kind {
+        CLIENT_CREATED,
+        CLIENT_DELETED,
+        ACCOUNT_CREATED,
+        POSTING
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final TypeAccount[] ACCOUNT_TYPES = TypeAccount.values();
+    private static final TypeTransaction[] TRANSACTION_TYPES = TypeTransaction.values();
+
+    final Kind kind;
+    long sequence;
+
+    // client fields
+    UUID clientId;
+    String firstName;
+    String lastName;
+    String email;
+    String password;
+
+    // account fields
+    UUID accountId;
+    TypeAccount accountType;
+
+    // posting fields
+    UUID transactionId;
+    TypeTransaction transactionType;
+    long amountCents;
+    long epochNanos;
+    String description;
+    UUID sourceAccountId;
+    UUID destinationAccountId;
+
+    private JournalRecord(Kind kind) {
+        this.kind = kind;
+    }
+
+    public static JournalRecord clientCreated(Client client) {
+        JournalRecord record = new JournalRecord(Kind.CLIENT_CREATED);
+        record.clientId = client.getClientId();
+        record.firstName = client.getFirstName();
+        record.lastName = client.getLastName();
+        record.email = client.getEmail();
+        record.password = client.getPassword();
+        return record;
+    }
+
+    public static JournalRecord clientDeleted(UUID clientId) {
+        JournalRecord record = new JournalRecord(Kind.CLIENT_DELETED);
+        record.clientId = clientId;
+        return record;
+    }
+
+    public static JournalRecord accountCreated(Account account) {
+        JournalRecord record = new JournalRecord(Kind.ACCOUNT_CREATED);
+        record.accountId = account.getAccountId();
+        record.clientId = account.getClient().getClientId();
+        record.accountType = account.getAccountType();
+        record.amountCents = account.getBalance();
+        return record;
+    }
+
+    public static JournalRecord posting(Transaction transaction) {
+        JournalRecord record = new JournalRecord(Kind.POSTING);
+        record.transactionId = transaction.getTransactionId();
+        record.transactionType = transaction.getTransactionType();
+        record.amountCents = transaction.getAmount();
+        record.epochNanos = DateUtil.toEpochNanos(transaction.getDate());
+        record.description = transaction.getDescription();
+        record.sourceAccountId = transaction.getSourceAccount() != null ? transaction.getSourceAccount().getAccountId() : null;
+        record.destinationAccountId = transaction.getDestinationAccount() != null ? transaction.getDestinationAccount().getAccountId() : null;
+        return record;
+    }
+
+    //Getters
+    public Kind getKind() {return kind;}
+    public long getSequence() {return sequence;}
+    public UUID getClientId() {return clientId;}
+    public String getFirstName() {return firstName;}
+    public String getLastName() {return lastName;}
+    public String getEmail() {return email;}
+    public String getPassword() {return password;}
+    public UUID getAccountId() {return accountId;}
+    public TypeAccount getAccountType() {return accountType;}
+    public UUID getTransactionId() {return transactionId;}
+    public TypeTransaction getTransactionType() {return transactionType;}
+    public long getAmountCents() {return amountCents;}
+    public long getEpochNanos() {return epochNanos;}
+    public String getDescription() {return description;}
+    public UUID getSourceAccountId() {return sourceAccountId;}
+    public UUID getDestinationAccountId() {return destinationAccountId;}
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(kind.ordinal());
+        out.writeLong(sequence);
+        switch (kind) {
+            case CLIENT_CREATED:
+                writeUuid(out, clientId);
+                out.writeUTF(firstName);
+                out.writeUTF(lastName);
+                out.writeUTF(email);
+                out.writeUTF(password);
+                break;
+            case CLIENT_DELETED:
+                writeUuid(out, clientId);
+                break;
+            case ACCOUNT_CREATED:
+                writeUuid(out, accountId);
+                writeUuid(out, clientId);
+                out.writeByte(accountType.ordinal());
+                out.writeLong(amountCents);
+                break;
+            case POSTING:
+                writeUuid(out, transactionId);
+                out.writeByte(transactionType.ordinal());
+                out.writeLong(amountCents);
+                out.writeLong(epochNanos);
+                out.writeUTF(description);
+                writeNullableUuid(out, sourceAccountId);
+                writeNullableUuid(out, destinationAccountId);
+                break;
+        }
+    }
+
+    static JournalRecord readFrom(DataInput in) throws IOException {
+        JournalRecord record = new JournalRecord(KINDS[in.readUnsignedByte()]);
+        record.sequence = in.readLong();
+        switch (record.kind) {
+            case CLIENT_CREATED:
+                record.clientId = readUuid(in);
+                record.firstName = in.readUTF();
+                record.lastName = in.readUTF();
+                record.email = in.readUTF();
+                record.password = in.readUTF();
+                break;
+            case CLIENT_DELETED:
+                record.clientId = readUuid(in);
+                break;
+            case ACCOUNT_CREATED:
+                record.accountId = readUuid(in);
+                record.clientId = readUuid(in);
+                record.accountType = ACCOUNT_TYPES[in.readUnsignedByte()];
+                record.amountCents = in.readLong();
+                break;
+            case POSTING:
+                record.transactionId = readUuid(in);
+                record.transactionType = TRANSACTION_TYPES[in.readUnsignedByte()];
+                record.amountCents = in.readLong();
+                record.epochNanos = in.readLong();
+                record.description = in.readUTF();
+                record.sourceAccountId = readNullableUuid(in);
+                record.destinationAccountId = readNullableUuid(in);
+                break;
+        }
+        return record;
+    }
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeNullableUuid(DataOutput out, UUID id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            writeUuid(out, id);
+        }
+    }
+
+    private static UUID readNullableUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? readUuid(in) : null;
+    }
+}
@@ -0,0 +1,35 @@
+package repository.journal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+// Journal.NONE: acknowledges every record immediately and keeps nothing
+class NoJournal implements Journal {
+    // writers never contend on a lock when nothing is journaled
+    private final ReadWriteLock stateLock = new NoStateLock();
+
+    @Override
+    public CompletableFuture<Void> append(JournalRecord record) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void replay(long fromOffset, Consumer<JournalRecord> consumer) {
+    }
+
+    @Override
+    public long position() {
+        return 0;
+    }
+
+    @Override
+    public long lastSequence() {
+        return 0;
+    }
+
+    @Override
+    public ReadWriteLock stateLock() {
+        return stateLock;
+    }
+}
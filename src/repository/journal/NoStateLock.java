@@ -0,0 +1,48 @@
+package repository.journal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+// State lock of Journal.NONE: with nothing journaled there is no journal position for a checkpoint to line up with
+class NoStateLock implements ReadWriteLock {
+    private static final Lock NONE = new Lock() {
+        @Override
+        public void lock() {
+        }
+
+        @Override
+        public void lockInterruptibly() {
+        }
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Override
+    public Lock readLock() {
+        return NONE;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return NONE;
+    }
+}
@@ -0,0 +1,234 @@
+package repository.journal;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.TransactionRepository;
+import util.DateUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Checkpoint of clients, accounts with their balances, and transactions, in a compact binary
+ * file that is loaded through a MappedByteBuffer. The journal sequence and byte offset the
+ * checkpoint covers are stored with it so recovery only replays the journal tail.
+ *
+ * Layout: header (magic, version, sequence, journal offset), then the client, account and
+ * transaction sections, each prefixed with its count, then a CRC32 of everything before it.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x42534E50; // "BSNP"
+    private static final int VERSION = 1;
+    private static final TypeAccount[] ACCOUNT_TYPES = TypeAccount.values();
+    private static final TypeTransaction[] TRANSACTION_TYPES = TypeTransaction.values();
+
+    // journal position covered by a loaded snapshot
+    public static class Position {
+        final long sequence;
+        final long journalOffset;
+
+        Position(long sequence, long journalOffset) {
+            this.sequence = sequence;
+            this.journalOffset = journalOffset;
+        }
+
+        public long getSequence() {return sequence;}
+        public long getJournalOffset() {return journalOffset;}
+    }
+
+    /**
+     * Writes a snapshot next to the target and moves it into place, so a crash mid-write leaves
+     * the previous snapshot intact. Clients not in activeClientIds are kept only as owners of
+     * their accounts. balancesCents[i] is the balance of accounts.get(i) at checkpoint time.
+     */
+    public static void write(Path path, long sequence, long journalOffset, List<Client> clients, Set<UUID> activeClientIds,
+                             List<Account> accounts, long[] balancesCents, List<Transaction> transactions) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 256 * 1024), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeLong(journalOffset);
+
+            out.writeInt(clients.size());
+            for (Client client : clients) {
+                writeUuid(out, client.getClientId());
+                out.writeBoolean(activeClientIds.contains(client.getClientId()));
+                writeString(out, client.getFirstName());
+                writeString(out, client.getLastName());
+                writeString(out, client.getEmail());
+                writeString(out, client.getPassword());
+            }
+
+            out.writeInt(accounts.size());
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                writeUuid(out, account.getAccountId());
+                writeUuid(out, account.getClient().getClientId());
+                out.writeByte(account.getAccountType().ordinal());
+                out.writeLong(balancesCents[i]);
+            }
+
+            out.writeInt(transactions.size());
+            for (Transaction transaction : transactions) {
+                writeUuid(out, transaction.getTransactionId());
+                out.writeByte(transaction.getTransactionType().ordinal());
+                out.writeLong(transaction.getAmount());
+                out.writeLong(DateUtil.toEpochNanos(transaction.getDate()));
+                writeString(out, transaction.getDescription());
+                writeNullableUuid(out, transaction.getSourceAccount() != null ? transaction.getSourceAccount().getAccountId() : null);
+                writeNullableUuid(out, transaction.getDestinationAccount() != null ? transaction.getDestinationAccount().getAccountId() : null);
+            }
+
+            out.flush();
+            new DataOutputStream(Channels.newOutputStream(channel)).writeInt((int) crc.getValue());
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot and loads it into the repositories. Returns null when there is no usable
+     * snapshot (missing, or failing its checksum), in which case nothing is loaded.
+     */
+    public static Position load(Path path, ClientRepository clientRepository, AccountRepository accountRepository,
+                                TransactionRepository transactionRepository) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 28 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!checksumMatches(buffer)) {
+                return null;
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long sequence = buffer.getLong();
+            long journalOffset = buffer.getLong();
+
+            int clientCount = buffer.getInt();
+            Map<UUID, Client> clients = new HashMap<>(clientCount * 2);
+            for (int i = 0; i < clientCount; i++) {
+                UUID clientId = readUuid(buffer);
+                boolean active = buffer.get() != 0;
+                Client client = new Client(readString(buffer), readString(buffer), readString(buffer), readString(buffer),
+                    clientId, new ArrayList<>());
+                clients.put(clientId, client);
+                if (active) {
+                    clientRepository.save(client);
+                }
+            }
+
+            int accountCount = buffer.getInt();
+            Map<UUID, Account> accounts = new HashMap<>(accountCount * 2);
+            for (int i = 0; i < accountCount; i++) {
+                UUID accountId = readUuid(buffer);
+                Client client = clients.get(readUuid(buffer));
+                Account account = new Account(accountId, ACCOUNT_TYPES[buffer.get()], buffer.getLong(),
+                    new ArrayList<>(), client);
+                accounts.put(accountId, account);
+                accountRepository.save(account);
+                client.getAccounts().add(account);
+            }
+
+            int transactionCount = buffer.getInt();
+            Map<String, String> descriptions = new HashMap<>();
+            for (int i = 0; i < transactionCount; i++) {
+                UUID transactionId = readUuid(buffer);
+                TypeTransaction type = TRANSACTION_TYPES[buffer.get()];
+                long amount = buffer.getLong();
+                long epochNanos = buffer.getLong();
+                String description = descriptions.computeIfAbsent(readString(buffer), text -> text);
+                UUID sourceId = readNullableUuid(buffer);
+                UUID destinationId = readNullableUuid(buffer);
+                Account source = sourceId != null ? accounts.get(sourceId) : null;
+                Account destination = destinationId != null ? accounts.get(destinationId) : null;
+
+                Transaction transaction = new Transaction(transactionId, type, amount,
+                    DateUtil.fromEpochNanos(epochNanos), description, source, destination);
+                transactionRepository.save(transaction);
+                if (source != null) {
+                    source.getTransactions().add(transaction);
+                }
+                if (destination != null && destination != source) {
+                    destination.getTransactions().add(transaction);
+                }
+            }
+            return new Position(sequence, journalOffset);
+        }
+    }
+
+    private static boolean checksumMatches(MappedByteBuffer buffer) {
+        int bodyLength = buffer.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(bodyLength));
+        return (int) crc.getValue() == buffer.getInt(bodyLength);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeNullableUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            writeUuid(out, id);
+        }
+    }
+
+    private static UUID readNullableUuid(ByteBuffer buffer) {
+        return buffer.get() != 0 ? readUuid(buffer) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,143 @@
+package repository.journal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * State lock split into stripes so writers on different threads do not CAS the same lock word.
+ * A thread always takes the read lock of its own stripe; the write lock takes every stripe in
+ * order, so a checkpoint still waits for all writers and holds them all off. Reads and writes are
+ * reentrant as with ReentrantReadWriteLock, and unlock must happen on the locking thread.
+ */
+class StripedStateLock implements ReadWriteLock {
+    private final ReentrantReadWriteLock[] stripes;
+    private final Lock readLock = new StripeLock();
+    private final Lock writeLock = new AllStripesLock();
+
+    StripedStateLock() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        stripes = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    private ReentrantReadWriteLock.ReadLock stripe() {
+        long id = Thread.currentThread().getId();
+        return stripes[(int) (id ^ (id >>> 16)) & (stripes.length - 1)].readLock();
+    }
+
+    private class StripeLock implements Lock {
+        @Override
+        public void lock() {
+            stripe().lock();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            stripe().lockInterruptibly();
+        }
+
+        @Override
+        public boolean tryLock() {
+            return stripe().tryLock();
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return stripe().tryLock(time, unit);
+        }
+
+        @Override
+        public void unlock() {
+            stripe().unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class AllStripesLock implements Lock {
+        @Override
+        public void lock() {
+            for (ReentrantReadWriteLock stripe : stripes) {
+                stripe.writeLock().lock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int locked = 0;
+            try {
+                for (; locked < stripes.length; locked++) {
+                    stripes[locked].writeLock().lockInterruptibly();
+                }
+            } finally {
+                if (locked < stripes.length) {
+                    unlockFirst(locked);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            for (int i = 0; i < stripes.length; i++) {
+                if (!stripes[i].writeLock().tryLock()) {
+                    unlockFirst(i);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            int locked = 0;
+            try {
+                for (; locked < stripes.length; locked++) {
+                    if (!stripes[locked].writeLock().tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                if (locked < stripes.length) {
+                    unlockFirst(locked);
+                }
+            }
+        }
+
+        @Override
+        public void unlock() {
+            unlockFirst(stripes.length);
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        // releases the write locks of stripes [0, count), last taken first
+        private void unlockFirst(int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package service;
+
+import model.Account;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-account locks. Each account maps to one of a fixed set of locks by its id, so
+ * memory stays constant however many accounts exist, and postings on accounts in different
+ * stripes run in parallel.
+ *
+ * Two-account postings take both stripes in ascending stripe order. Every thread acquires in
+ * the same global order, so an A->B transfer and a B->A transfer cannot deadlock.
+ */
+public class AccountLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks() {
+        this(Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    public AccountLocks(int minimumStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public void lock(Account account) {
+        stripes[stripeOf(account)].lock();
+    }
+
+    public void unlock(Account account) {
+        stripes[stripeOf(account)].unlock();
+    }
+
+    // locks the stripes of both accounts, lowest stripe first
+    public void lock(Account first, Account second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            stripes[a].lock();
+        } else {
+            stripes[Math.min(a, b)].lock();
+            stripes[Math.max(a, b)].lock();
+        }
+    }
+
+    public void unlock(Account first, Account second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            stripes[a].unlock();
+        } else {
+            stripes[Math.max(a, b)].unlock();
+            stripes[Math.min(a, b)].unlock();
+        }
+    }
+
+    private int stripeOf(Account account) {
+        int hash = account.getAccountId().hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -4,17 +4,26 @@ import model.Account;
 import model.Client;
 import model.enums.TypeAccount;
 import repository.AccountRepository;
+import repository.journal.Journal;
+import repository.journal.JournalRecord;
+import util.MoneyUtil;
 
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 
 public class AccountService {
     private final AccountRepository accountRepository;
+    private final Journal journal;
+    private final SystemStatistics statistics;
 
-    public AccountService(AccountRepository accountRepository) {
+    // takes the TransactionService's statistics, so balance totals include postings
+    public AccountService(AccountRepository accountRepository, Journal journal, SystemStatistics statistics) {
         this.accountRepository = accountRepository;
+        this.journal = journal;
+        this.statistics = statistics;
     }
 
-    public Account createAccount(Client client, TypeAccount type, double initialBalance) {
+    public Account createAccount(Client client, TypeAccount type, long initialBalance) {
         if (client == null) {
             throw new IllegalArgumentException("Client cannot be null");
         }
@@ -35,28 +44,40 @@ public class AccountService {
             client
         );
 
-        accountRepository.save(newAccount);
-
-        client.getAccounts().add(newAccount);
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        try {
+            journal.append(JournalRecord.accountCreated(newAccount)).join();
+            accountRepository.save(newAccount);
+            client.getAccounts().add(newAccount);
+            statistics.recordAccountOpened(initialBalance);
+        } finally {
+            stateLock.unlock();
+        }
 
         return newAccount;
     }
 
-    public double getTotalSystemBalance() {
-        return accountRepository.findAll().stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+    // in centimes
+    public long getTotalSystemBalance() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        long total = statistics.totalBalance();
+        event.commit("Total Balance", total);
+        return total;
     }
 
-    public double getAverageAccountBalance() {
-        int accountCount = getTotalAccountCount();
-        if (accountCount == 0) {
-            return 0.0;
-        }
-        return getTotalSystemBalance() / accountCount;
+    // in centimes, rounded to the nearest centime
+    public long getAverageAccountBalance() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        long average = MoneyUtil.average(statistics.totalBalance(), statistics.accountCount());
+        event.commit("Average Balance", average);
+        return average;
     }
 
     public int getTotalAccountCount() {
-        return accountRepository.findAll().size();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        int count = (int) statistics.accountCount();
+        event.commit("Account Count", count);
+        return count;
     }
 }
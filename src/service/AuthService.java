@@ -8,7 +8,6 @@ import repository.ClientRepository;
 import exceptions.AccountNotFoundException;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,13 +37,7 @@ public class AuthService {
 
     // check if email exists
     public boolean emailExists(String email, Role role) {
-        List<Client> clients = clientRepo.findAll();
-        for (Client client : clients) {
-            if (client.getEmail().equals(email)) {
-                return true;
-            }
-        }
-        return false;
+        return clientRepo.findByEmail(email).isPresent();
     }
 
     // login - check credentials for both Client and Banker
@@ -53,12 +46,10 @@ public class AuthService {
         if (BANKER.getEmail().equals(email) && BANKER.getPassword().equals(password)) {
             return Optional.of(BANKER);
         }
-        // check in clients
-        List<Client> clients = clientRepo.findAll();
-        for (Client client : clients) {
-            if (client.getEmail().equals(email) && client.getPassword().equals(password)) {
-                return Optional.of(client);
-            }
+        // check in clients through the email index
+        Optional<Client> client = clientRepo.findByEmail(email);
+        if (client.isPresent() && client.get().getPassword().equals(password)) {
+            return Optional.of(client.get());
         }
         // If no match found, throw exception
         throw new AccountNotFoundException("Invalid credentials: Account not found for email " + email);
@@ -0,0 +1,422 @@
+package service;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import model.enums.TypeAccount;
+import model.enums.TypeTransaction;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.journal.Journal;
+import repository.journal.JournalRecord;
+import util.MoneyUtil;
+import util.ValidatorUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * Loads clients, accounts and historical transactions from CSV files, each with an optional header:
+ *
+ *   clients:      first_name,last_name,email,password
+ *   accounts:     account_id,email,account_type,balance
+ *   transactions: transaction_id,date,type,amount,source_account,destination_account,description
+ *
+ * An account belongs to the client with that email and opens with the given balance in DH; a blank
+ * account_id gets a new one. Transactions use the export format and are applied on top of the
+ * opening balances, so load the files in this order.
+ *
+ * The file is cut into chunks on record boundaries and the chunks are parsed and validated on all
+ * cores, a few at a time so memory stays flat. Parsed rows come back in file order and are inserted
+ * by this thread in batches of BATCH_SIZE: the batch is checked for duplicates (emails against the
+ * client index and earlier rows, account ids against the account index, transaction ids against the
+ * source account's history), its journal records are
+ * appended together so they share group commits, and it is applied once they are durable. Rows that
+ * fail validation or are duplicates are counted and skipped; a journal failure stops the import.
+ */
+public class BulkImportService {
+    public static final int BATCH_SIZE = 1000;
+
+    private final ClientRepository clientRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+    private final SystemStatistics statistics;
+    private final Journal journal;
+
+    public BulkImportService(ClientRepository clientRepository, AccountRepository accountRepository,
+                             TransactionService transactionService, SystemStatistics statistics, Journal journal) {
+        this.clientRepository = clientRepository;
+        this.accountRepository = accountRepository;
+        this.transactionService = transactionService;
+        this.statistics = statistics;
+        this.journal = journal;
+    }
+
+    // turns a record's fields into a value, or throws IllegalArgumentException with the reason
+    private interface RowParser<T> {
+        T parse(String[] fields);
+    }
+
+    // inserts a batch of parsed rows, reporting duplicates; returns how many were inserted
+    private interface BatchWriter<T> {
+        int write(List<Row<T>> batch, ImportReport report) throws IOException;
+    }
+
+    private static final class Row<T> {
+        final long record;
+        final T value;
+
+        Row(long record, T value) {
+            this.record = record;
+            this.value = value;
+        }
+    }
+
+    // what a parser thread hands back for one chunk
+    private static final class ParsedChunk<T> {
+        private static final int MAX_REASONS = 20;
+
+        final List<Row<T>> rows = new ArrayList<>();
+        final List<Row<String>> reasons = new ArrayList<>();
+        long count;
+        long rejected;
+
+        void reject(long record, String reason) {
+            rejected++;
+            if (reasons.size() < MAX_REASONS) {
+                reasons.add(new Row<>(record, reason));
+            }
+        }
+    }
+
+    public ImportReport importClients(Path file) throws IOException {
+        return load(file, "Clients", "first_name", this::parseClient, this::insertClients);
+    }
+
+    public ImportReport importAccounts(Path file) throws IOException {
+        return load(file, "Accounts", "account_id", this::parseAccount, this::insertAccounts);
+    }
+
+    public ImportReport importTransactions(Path file) throws IOException {
+        return load(file, "Transactions", "transaction_id", this::parseTransaction, this::insertTransactions);
+    }
+
+    private <T> ImportReport load(Path file, String kind, String headerStart, RowParser<T> parser,
+                                  BatchWriter<T> writer) throws IOException {
+        ImportReport report = new ImportReport(kind, file);
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CsvChunks chunks = new CsvChunks(channel);
+            Deque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>();
+            List<Row<T>> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                // two chunks per parser: the parsers never wait on this thread, and memory stays bounded
+                while (inFlight.size() < 2 * threads && chunks.hasNext()) {
+                    CsvChunks.Chunk chunk = chunks.next();
+                    inFlight.add(parsers.submit(() -> parse(channel, chunk, headerStart, parser)));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                ParsedChunk<T> parsed = await(inFlight.poll());
+                report.countRows(parsed.count);
+                for (Row<String> reason : parsed.reasons) {
+                    report.reject(reason.record, reason.value);
+                }
+                report.countRejected(parsed.rejected - parsed.reasons.size());
+                for (Row<T> row : parsed.rows) {
+                    batch.add(row);
+                    if (batch.size() == BATCH_SIZE) {
+                        report.countImported(writer.write(batch, report));
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                report.countImported(writer.write(batch, report));
+            }
+            report.finish(channel.size(), System.nanoTime() - start);
+        } finally {
+            parsers.shutdownNow();
+        }
+        return report;
+    }
+
+    private static <T> ParsedChunk<T> parse(FileChannel channel, CsvChunks.Chunk chunk, String headerStart,
+                                            RowParser<T> parser) throws IOException {
+        ParsedChunk<T> parsed = new ParsedChunk<>();
+        List<String[]> records = CsvChunks.parse(channel, chunk);
+        for (int i = 0; i < records.size(); i++) {
+            String[] fields = records.get(i);
+            long record = chunk.firstRecord + i + 1;
+            if (fields.length == 0 || record == 1 && fields[0].trim().equalsIgnoreCase(headerStart)) {
+                continue;
+            }
+            parsed.count++;
+            try {
+                parsed.rows.add(new Row<>(record, parser.parse(fields)));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                parsed.reject(record, e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Appends the batch's journal records and waits once for all of them, then applies the batch.
+    // The shared state lock is held throughout so a checkpoint cannot land between the two.
+    private <T> void journaled(List<T> batch, Function<T, JournalRecord> toRecord, Runnable apply) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[batch.size()];
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        try {
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = journal.append(toRecord.apply(batch.get(i)));
+            }
+            try {
+                CompletableFuture.allOf(pending).join();
+            } catch (CompletionException e) {
+                throw new IOException("Batch could not be recorded: " + e.getCause().getMessage(), e.getCause());
+            }
+            apply.run();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // Clients
+
+    private Client parseClient(String[] fields) {
+        requireColumns(fields, 4);
+        String firstName = fields[0].trim();
+        String lastName = fields[1].trim();
+        String email = fields[2].trim();
+        String password = fields[3];
+        if (!ValidatorUtil.isValidName(firstName)) {
+            throw new IllegalArgumentException("Invalid first name");
+        }
+        if (!ValidatorUtil.isValidName(lastName)) {
+            throw new IllegalArgumentException("Invalid last name");
+        }
+        if (!ValidatorUtil.isValidEmail(email)) {
+            throw new IllegalArgumentException("Invalid email format");
+        }
+        if (!ValidatorUtil.isValidPassword(password)) {
+            throw new IllegalArgumentException("Invalid password - must be at least 6 characters");
+        }
+        return new Client(firstName, lastName, email, password, UUID.randomUUID(), new ArrayList<>());
+    }
+
+    // the first row with an email wins, later ones and ones already registered are duplicates. Saving
+    // claims each email atomically, also against sign-ups running meanwhile; if the batch cannot be
+    // journaled its clients are dropped again. The state lock covers both, as in journaled().
+    private int insertClients(List<Row<Client>> batch, ImportReport report) throws IOException {
+        List<Client> clients = new ArrayList<>(batch.size());
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        try {
+            for (Row<Client> row : batch) {
+                try {
+                    clientRepository.save(row.value);
+                    clients.add(row.value);
+                } catch (IllegalArgumentException e) {
+                    report.duplicate(row.record, "Email already exists: " + row.value.getEmail());
+                }
+            }
+            try {
+                journaled(clients, JournalRecord::clientCreated, () -> {});
+            } catch (IOException e) {
+                clients.forEach(client -> clientRepository.delete(client.getClientId()));
+                throw e;
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        return clients.size();
+    }
+
+    // Accounts
+
+    // runs on the parser threads; clients are only read from the repository here
+    private Account parseAccount(String[] fields) {
+        requireColumns(fields, 4);
+        UUID accountId = fields[0].isBlank() ? UUID.randomUUID() : parseId(fields[0], "account id");
+        String email = fields[1].trim();
+        Client client = clientRepository.findByEmail(email)
+            .orElseThrow(() -> new IllegalArgumentException("No client with email " + email));
+        TypeAccount type = parseEnum(TypeAccount.class, fields[2], "account type");
+        long balance = parseAmount(fields[3]);
+        if (balance < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative");
+        }
+        return new Account(accountId, type, balance, new ArrayList<>(), client);
+    }
+
+    private int insertAccounts(List<Row<Account>> batch, ImportReport report) throws IOException {
+        Set<UUID> batchIds = new HashSet<>();
+        List<Account> accounts = new ArrayList<>(batch.size());
+        for (Row<Account> row : batch) {
+            UUID accountId = row.value.getAccountId();
+            if (!batchIds.add(accountId) || accountRepository.findById(accountId).isPresent()) {
+                report.duplicate(row.record, "Account already exists: " + accountId);
+            } else {
+                accounts.add(row.value);
+            }
+        }
+        journaled(accounts, JournalRecord::accountCreated, () -> {
+            accountRepository.saveAll(accounts);
+            for (Account account : accounts) {
+                account.getClient().getAccounts().add(account);
+                statistics.recordAccountOpened(account.getBalance());
+            }
+        });
+        return accounts.size();
+    }
+
+    // Transactions
+
+    // historical postings are taken as they happened: no amount limits or balance checks, like recovery
+    private Transaction parseTransaction(String[] fields) {
+        requireColumns(fields, 6);
+        UUID transactionId = fields[0].isBlank() ? UUID.randomUUID() : parseId(fields[0], "transaction id");
+        LocalDateTime date = LocalDateTime.parse(fields[1].trim());
+        TypeTransaction type = parseEnum(TypeTransaction.class, fields[2], "transaction type");
+        long amount = parseAmount(fields[3]);
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        Account source = findAccount(fields[4], "source account");
+        Account destination = null;
+        if (type == TypeTransaction.TRANSFER) {
+            destination = findAccount(fields[5], "destination account");
+            if (destination == source) {
+                throw new IllegalArgumentException("Transfer to the same account");
+            }
+        } else if (!fields[5].isBlank()) {
+            throw new IllegalArgumentException("Only a transfer has a destination account");
+        }
+        String description = fields.length > 6 ? fields[6] : "";
+        return new Transaction(transactionId, type, amount, date, description, source, destination);
+    }
+
+    // the first row with an id wins, later ones and ones already posted are duplicates, so importing
+    // an export again or retrying a partly failed import does not move any balance twice
+    private int insertTransactions(List<Row<Transaction>> batch, ImportReport report) throws IOException {
+        Set<UUID> batchIds = new HashSet<>();
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        for (Row<Transaction> row : batch) {
+            UUID transactionId = row.value.getTransactionId();
+            if (!batchIds.add(transactionId) || alreadyPosted(row.value)) {
+                report.duplicate(row.record, "Transaction already exists: " + transactionId);
+            } else {
+                transactions.add(row.value);
+            }
+        }
+        journaled(transactions, JournalRecord::posting, () -> transactions.forEach(transactionService::restore));
+        return transactions.size();
+    }
+
+    // A posted transaction is in its source account's history within the second of its date, found by
+    // binary search. The whole second is searched because files written before exports kept the
+    // fraction of a second carry whole-second dates, while live postings are stamped to the nanosecond.
+    private static boolean alreadyPosted(Transaction transaction) {
+        LocalDateTime second = transaction.getDate().truncatedTo(ChronoUnit.SECONDS);
+        List<Transaction> sameSecond = transaction.getSourceAccount().getTransactions()
+            .between(second, second.plusSeconds(1).minusNanos(1));
+        for (Transaction posted : sameSecond) {
+            if (posted.getTransactionId().equals(transaction.getTransactionId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Fields
+
+    private static void requireColumns(String[] fields, int columns) {
+        if (fields.length < columns) {
+            throw new IllegalArgumentException("Expected " + columns + " columns, found " + fields.length);
+        }
+    }
+
+    private Account findAccount(String field, String what) {
+        UUID accountId = parseId(field, what);
+        return accountRepository.findById(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown " + what + " " + accountId));
+    }
+
+    private static UUID parseId(String field, String what) {
+        try {
+            return UUID.fromString(field.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + field);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String field, String what) {
+        try {
+            return Enum.valueOf(type, field.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + field);
+        }
+    }
+
+    private static long parseAmount(String field) {
+        try {
+            return MoneyUtil.parse(field);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid amount: " + field);
+        }
+    }
+}
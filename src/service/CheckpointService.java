@@ -0,0 +1,125 @@
+package service;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.TransactionRepository;
+import repository.journal.Journal;
+import repository.journal.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+// Periodic snapshots of the repositories, and startup recovery from snapshot + journal tail
+public class CheckpointService {
+
+    private final ClientRepository clientRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final Journal journal;
+    private final Path snapshotPath;
+    private ScheduledExecutorService scheduler;
+
+    public CheckpointService(ClientRepository clientRepository, AccountRepository accountRepository,
+                             TransactionRepository transactionRepository, TransactionService transactionService,
+                             Journal journal, Path snapshotPath) {
+        this.clientRepository = clientRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionService = transactionService;
+        this.journal = journal;
+        this.snapshotPath = snapshotPath;
+    }
+
+    // Loads the latest snapshot, if any, then replays only the journal records written after it
+    public void recover() throws IOException {
+        SnapshotFile.Position position = SnapshotFile.load(snapshotPath, clientRepository, accountRepository, transactionRepository);
+        long fromOffset = position != null ? position.getJournalOffset() : 0;
+        long afterSequence = position != null ? position.getSequence() : 0;
+
+        RecoveryService recoveryService = new RecoveryService(clientRepository, accountRepository, transactionService);
+        journal.replay(fromOffset, record -> {
+            if (record.getSequence() > afterSequence) {
+                recoveryService.accept(record);
+            }
+        });
+    }
+
+    // Writes a snapshot of the current state. Writers are paused only while the state is copied.
+    // Needs a real journal: Journal.NONE's state lock does not pause anyone, so the copy could be torn.
+    public void checkpoint() throws IOException {
+        if (journal == Journal.NONE) {
+            throw new IllegalStateException("Checkpoints need a journal to pause postings while the state is copied");
+        }
+        long sequence;
+        long journalOffset;
+        List<Client> activeClients;
+        List<Account> accounts;
+        long[] balancesCents;
+        List<Transaction> transactions;
+
+        Lock exclusive = journal.stateLock().writeLock();
+        exclusive.lock();
+        try {
+            // every writer has released the shared lock, so everything journaled is also applied
+            sequence = journal.lastSequence();
+            journalOffset = journal.position();
+            activeClients = clientRepository.findAll();
+            accounts = accountRepository.findAll();
+            balancesCents = new long[accounts.size()];
+            for (int i = 0; i < accounts.size(); i++) {
+                balancesCents[i] = accounts.get(i).getBalance();
+            }
+            transactions = transactionRepository.findAll();
+        } finally {
+            exclusive.unlock();
+        }
+
+        // accounts of deleted clients still need their owner to be restored
+        Map<UUID, Client> owners = new LinkedHashMap<>();
+        Set<UUID> activeClientIds = new HashSet<>();
+        for (Client client : activeClients) {
+            owners.put(client.getClientId(), client);
+            activeClientIds.add(client.getClientId());
+        }
+        for (Account account : accounts) {
+            owners.putIfAbsent(account.getClient().getClientId(), account.getClient());
+        }
+
+        SnapshotFile.write(snapshotPath, sequence, journalOffset, List.copyOf(owners.values()), activeClientIds,
+            accounts, balancesCents, transactions);
+    }
+
+    // Checkpoints in the background at a fixed interval
+    public synchronized void scheduleEvery(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                System.out.println("Checkpoint failed: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -3,20 +3,30 @@ package service;
 import model.Client;
 import model.enums.Role;
 import repository.ClientRepository;
+import repository.journal.Journal;
+import repository.journal.JournalRecord;
 import util.ValidatorUtil;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
 
 public class ClientService {
 
     private final ClientRepository clientRepository;
     private final AuthService authService;
+    private final Journal journal;
 
     public ClientService(ClientRepository clientRepository, AuthService authService) {
+        this(clientRepository, authService, Journal.NONE);
+    }
+
+    public ClientService(ClientRepository clientRepository, AuthService authService, Journal journal) {
         this.clientRepository = clientRepository;
         this.authService = authService;
+        this.journal = journal;
     }
 
     public Client createClient(String firstName, String lastName, String email, String password) {
@@ -49,7 +59,25 @@ public class ClientService {
             new ArrayList<>()
         );
 
-        clientRepository.save(newClient);
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        try {
+            // Saving claims the email atomically, so of two sign-ups racing past the check above only
+            // one gets here; the client is journaled once it holds the email and dropped if that fails
+            try {
+                clientRepository.save(newClient);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            try {
+                journal.append(JournalRecord.clientCreated(newClient)).join();
+            } catch (CompletionException e) {
+                clientRepository.delete(newClient.getClientId());
+                throw e;
+            }
+        } finally {
+            stateLock.unlock();
+        }
 
         return newClient;
     }
@@ -59,6 +87,13 @@ public class ClientService {
     }
 
     public void deleteClient(UUID clientId) {
-        clientRepository.delete(clientId);
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        try {
+            journal.append(JournalRecord.clientDeleted(clientId)).join();
+            clientRepository.delete(clientId);
+        } finally {
+            stateLock.unlock();
+        }
     }
 }
@@ -0,0 +1,149 @@
+package service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts a CSV file into chunks of about CHUNK_SIZE bytes that each end on a record boundary, a line
+ * break outside quotes, and parses a chunk into records. Finding the boundaries is a plain byte scan
+ * done in file order; parsing, the costly part, then runs on several chunks at once. A quoted field
+ * may hold commas, doubled quotes and line breaks, as the export writes them. Not thread-safe, but
+ * parse() is, so chunks can be handed to other threads.
+ */
+final class CsvChunks {
+    static final int CHUNK_SIZE = 4 << 20;
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+    private static final String[] BLANK = new String[0];
+
+    // bytes [start, end) of the file, whose first record is number firstRecord + 1 in the file
+    static final class Chunk {
+        final long start;
+        final long end;
+        final long firstRecord;
+
+        private Chunk(long start, long end, long firstRecord) {
+            this.start = start;
+            this.end = end;
+            this.firstRecord = firstRecord;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    private long position;
+    private long records;
+
+    CsvChunks(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    boolean hasNext() {
+        return position < size;
+    }
+
+    // the next chunk: at least CHUNK_SIZE bytes unless the file ends first, cut after a line break outside quotes
+    Chunk next() throws IOException {
+        long start = position;
+        long target = start + CHUNK_SIZE;
+        long firstRecord = records;
+        long at = start;
+        boolean quoted = false;
+        scan:
+        while (at < size) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, at);
+            if (read < 0) {
+                throw new EOFException("File shrank while importing");
+            }
+            byte[] bytes = scanBuffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    records++;
+                    if (at + i + 1 >= target) {
+                        at += i + 1;
+                        break scan;
+                    }
+                }
+            }
+            at += read;
+        }
+        position = Math.min(at, size);
+        return new Chunk(start, position, firstRecord);
+    }
+
+    // the chunk's records split into fields, an empty array for a blank line
+    static List<String[]> parse(FileChannel channel, Chunk chunk) throws IOException {
+        byte[] bytes = new byte[(int) (chunk.end - chunk.start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, chunk.start + buffer.position()) < 0) {
+                throw new EOFException("File shrank while importing");
+            }
+        }
+        // a boundary is a '\n' byte, which never occurs inside a multi-byte UTF-8 character
+        String text = new String(bytes, StandardCharsets.UTF_8);
+
+        List<String[]> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder quotedField = new StringBuilder();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            fields.clear();
+            while (true) {
+                String field;
+                if (text.charAt(i) == '"') {
+                    quotedField.setLength(0);
+                    i++;
+                    while (i < length) {
+                        char c = text.charAt(i++);
+                        if (c != '"') {
+                            quotedField.append(c);
+                        } else if (i < length && text.charAt(i) == '"') {
+                            quotedField.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    // anything between the closing quote and the next delimiter is dropped
+                    while (i < length && text.charAt(i) != ',' && text.charAt(i) != '\n') {
+                        i++;
+                    }
+                    field = quotedField.toString();
+                } else {
+                    int start = i;
+                    while (i < length && text.charAt(i) != ',' && text.charAt(i) != '\n') {
+                        i++;
+                    }
+                    int end = i > start && text.charAt(i - 1) == '\r' ? i - 1 : i;
+                    field = text.substring(start, end);
+                }
+                fields.add(field);
+                if (i < length && text.charAt(i) == ',') {
+                    i++;
+                    if (i == length) {
+                        fields.add("");
+                        break;
+                    }
+                    continue;
+                }
+                i++;
+                break;
+            }
+            boolean blank = fields.size() == 1 && fields.get(0).isBlank();
+            records.add(blank ? BLANK : fields.toArray(new String[0]));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,64 @@
+package service;
+
+import model.Client;
+import model.MergedHistory;
+import repository.TransactionQuery;
+import repository.TransactionRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Exports a client's statement or the whole ledger, optionally limited to a date range, as CSV
+ * or JSON. Rows stream from the repository scan (or the merged account histories) straight into
+ * the file; nothing is collected on the way, so a ledger of any size exports in constant memory.
+ */
+public class ExportService {
+
+    public enum Format { CSV, JSON }
+
+    private final TransactionRepository transactionRepository;
+
+    public ExportService(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    // Every transaction dated from..to inclusive (null for unbounded), in posting order; returns the rows written
+    public long exportLedger(Path file, Format format, LocalDateTime from, LocalDateTime to) throws IOException {
+        TransactionQuery query = new TransactionQuery().dateBetween(from, to);
+        try (FileChannel channel = open(file);
+             TransactionExportWriter writer = new TransactionExportWriter(channel, format)) {
+            transactionRepository.scan(query, writer::accept);
+            return writer.getRows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The client's transactions over all their accounts dated from..to inclusive, oldest first;
+    // a transfer between two of their own accounts is written once
+    public long exportStatement(Client client, Path file, Format format, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        try (FileChannel channel = open(file);
+             TransactionExportWriter writer = new TransactionExportWriter(channel, format)) {
+            MergedHistory.between(client.getAccounts(), from, to).forEach(writer::accept);
+            return writer.getRows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
@@ -0,0 +1,88 @@
+package service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of one bulk import file: row counts, the first problems found, and how fast it went
+public class ImportReport {
+    private static final int MAX_PROBLEMS = 20;
+
+    private final String kind;
+    private final Path file;
+    private long rows;
+    private long imported;
+    private long rejected;
+    private long duplicates;
+    private long bytes;
+    private long elapsedNanos;
+    private final List<String> problems = new ArrayList<>();
+
+    ImportReport(String kind, Path file) {
+        this.kind = kind;
+        this.file = file;
+    }
+
+    //Getters
+    public String getKind() {return kind;}
+    public Path getFile() {return file;}
+    public long getRows() {return rows;}
+    public long getImported() {return imported;}
+    public long getRejected() {return rejected;}
+    public long getDuplicates() {return duplicates;}
+    public long getBytes() {return bytes;}
+    public long getElapsedNanos() {return elapsedNanos;}
+    // the first rejected or duplicate rows found, as "record <n>: <reason>"
+    public List<String> getProblems() {return problems;}
+
+    // problems beyond the ones kept in getProblems()
+    public long getUnlistedProblems() {
+        return rejected + duplicates - problems.size();
+    }
+
+    public double rowsPerSecond() {
+        return rows / seconds();
+    }
+
+    public double megabytesPerSecond() {
+        return bytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    private double seconds() {
+        return Math.max(elapsedNanos, 1) / 1e9;
+    }
+
+    void countRows(long count) {
+        rows += count;
+    }
+
+    void countImported(long count) {
+        imported += count;
+    }
+
+    void reject(long record, String reason) {
+        rejected++;
+        keep(record, reason);
+    }
+
+    // rejections beyond the ones a parser kept the reason of
+    void countRejected(long count) {
+        rejected += count;
+    }
+
+    void duplicate(long record, String reason) {
+        duplicates++;
+        keep(record, reason);
+    }
+
+    void finish(long bytes, long elapsedNanos) {
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    private void keep(long record, String reason) {
+        if (problems.size() < MAX_PROBLEMS) {
+            problems.add("record " + record + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import model.Transaction;
+
+/**
+ * Flight recorder event for a deposit, withdrawal or transfer, from the moment it asks for its locks
+ * until it releases them. Disabled unless a recording turns it on; until then begin() and the lock
+ * timing are no-ops and nothing is filled in.
+ */
+@Name("bank.Posting")
+@Label("Posting")
+@Category({"Bank", "Postings"})
+@Description("A deposit, withdrawal or transfer, with the time spent waiting for its locks")
+@Enabled(false)
+@StackTrace(false)
+final class PostingEvent extends Event {
+    @Label("Type")
+    String transactionType;
+
+    @Label("Amount")
+    @Description("In centimes")
+    long amount;
+
+    @Label("Source Account")
+    String sourceAccount;
+
+    @Label("Destination Account")
+    String destinationAccount;
+
+    @Label("Lock Wait")
+    @Description("Time to take the shared state lock and, for transfers, both account locks")
+    @Timespan
+    long lockWait;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    // not recorded, start of the lock wait
+    private transient long waitStart;
+
+    // begun right before the posting takes its locks
+    static PostingEvent started() {
+        PostingEvent event = new PostingEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.waitStart = System.nanoTime();
+        }
+        return event;
+    }
+
+    // once every lock is held
+    void locksAcquired() {
+        if (isEnabled()) {
+            lockWait = System.nanoTime() - waitStart;
+        }
+    }
+
+    // fills in the posting and commits it, when a recording wants this event
+    void commit(Transaction transaction, boolean succeeded) {
+        if (!shouldCommit()) {
+            return;
+        }
+        transactionType = transaction.getTransactionType().name();
+        amount = transaction.getAmount();
+        sourceAccount = transaction.getSourceAccount().getAccountId().toString();
+        if (transaction.getDestinationAccount() != null) {
+            destinationAccount = transaction.getDestinationAccount().getAccountId().toString();
+        }
+        this.succeeded = succeeded;
+        commit();
+    }
+}
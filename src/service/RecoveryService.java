@@ -0,0 +1,77 @@
+package service;
+
+import model.Account;
+import model.Client;
+import model.Transaction;
+import repository.AccountRepository;
+import repository.ClientRepository;
+import repository.journal.JournalRecord;
+import util.DateUtil;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+// Rebuilds clients, accounts, balances and transactions from journal records at startup
+public class RecoveryService implements Consumer<JournalRecord> {
+
+    private final ClientRepository clientRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+
+    public RecoveryService(ClientRepository clientRepository, AccountRepository accountRepository,
+                           TransactionService transactionService) {
+        this.clientRepository = clientRepository;
+        this.accountRepository = accountRepository;
+        this.transactionService = transactionService;
+    }
+
+    @Override
+    public void accept(JournalRecord record) {
+        switch (record.getKind()) {
+            case CLIENT_CREATED:
+                clientRepository.save(new Client(
+                    record.getFirstName(),
+                    record.getLastName(),
+                    record.getEmail(),
+                    record.getPassword(),
+                    record.getClientId(),
+                    new ArrayList<>()
+                ));
+                break;
+            case CLIENT_DELETED:
+                clientRepository.delete(record.getClientId());
+                break;
+            case ACCOUNT_CREATED:
+                clientRepository.findById(record.getClientId()).ifPresent(client -> {
+                    Account account = new Account(
+                        record.getAccountId(),
+                        record.getAccountType(),
+                        record.getAmountCents(),
+                        new ArrayList<>(),
+                        client
+                    );
+                    accountRepository.save(account);
+                    client.getAccounts().add(account);
+                });
+                break;
+            case POSTING:
+                Account source = record.getSourceAccountId() == null ? null
+                    : accountRepository.findById(record.getSourceAccountId()).orElse(null);
+                Account destination = record.getDestinationAccountId() == null ? null
+                    : accountRepository.findById(record.getDestinationAccountId()).orElse(null);
+                if (source == null || (record.getDestinationAccountId() != null && destination == null)) {
+                    return; // account unknown to this journal, nothing to apply it to
+                }
+                transactionService.restore(new Transaction(
+                    record.getTransactionId(),
+                    record.getTransactionType(),
+                    record.getAmountCents(),
+                    DateUtil.fromEpochNanos(record.getEpochNanos()),
+                    record.getDescription(),
+                    source,
+                    destination
+                ));
+                break;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Collection;
+
+// Flight recorder event for one of the banker's statistics or suspicious-transaction queries; disabled by default
+@Name("bank.StatisticsQuery")
+@Label("Statistics Query")
+@Category({"Bank", "Statistics"})
+@Description("A banker statistics or suspicious-transaction query")
+@Enabled(false)
+final class StatisticsQueryEvent extends Event {
+    @Label("Query")
+    String query;
+
+    @Label("Result")
+    @Description("The value returned (amounts in centimes), or the number of rows for list queries")
+    long result;
+
+    static StatisticsQueryEvent started() {
+        StatisticsQueryEvent event = new StatisticsQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    // fills in the query and commits it, when a recording wants this event
+    void commit(String query, long result) {
+        if (shouldCommit()) {
+            this.query = query;
+            this.result = result;
+            commit();
+        }
+    }
+
+    void commit(String query, Collection<?> rows) {
+        commit(query, rows.size());
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import model.Account;
+import model.Transaction;
+import model.enums.TypeTransaction;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bank-wide counters kept up to date on every posting and account opening, so the banker
+ * dashboard reads them in O(1) instead of rescanning the ledger. LongAdder spreads concurrent
+ * updates over per-thread cells, so writers on different cores don't contend on one counter.
+ *
+ * AccountService and TransactionService must share one instance for the balance total to
+ * include both opening balances and postings.
+ */
+public class SystemStatistics {
+    private static final TypeTransaction[] TYPES = TypeTransaction.values();
+
+    private final LongAdder[] counts = new LongAdder[TYPES.length];
+    private final LongAdder[] sums = new LongAdder[TYPES.length];
+    private final LongAdder totalBalance = new LongAdder();
+    private final LongAdder accountCount = new LongAdder();
+
+    public SystemStatistics() {
+        for (int i = 0; i < TYPES.length; i++) {
+            counts[i] = new LongAdder();
+            sums[i] = new LongAdder();
+        }
+    }
+
+    public void recordAccountOpened(long initialBalance) {
+        accountCount.increment();
+        totalBalance.add(initialBalance);
+    }
+
+    // called once per stored posting; transfers move money between accounts and leave the total alone
+    public void recordPosting(Transaction transaction) {
+        int type = transaction.getTransactionType().ordinal();
+        long amount = transaction.getAmount();
+        counts[type].increment();
+        sums[type].add(amount);
+        if (transaction.getTransactionType() == TypeTransaction.DEPOSIT) {
+            totalBalance.add(amount);
+        } else if (transaction.getTransactionType() == TypeTransaction.WITHDRAWAL) {
+            totalBalance.add(-amount);
+        }
+    }
+
+    // recomputes everything from the repositories, after state was loaded behind the services' back
+    public void rebuild(Collection<Account> accounts, Collection<Transaction> transactions) {
+        for (int i = 0; i < TYPES.length; i++) {
+            counts[i].reset();
+            sums[i].reset();
+        }
+        totalBalance.reset();
+        accountCount.reset();
+        for (Account account : accounts) {
+            accountCount.increment();
+            totalBalance.add(account.getBalance());
+        }
+        for (Transaction transaction : transactions) {
+            counts[transaction.getTransactionType().ordinal()].increment();
+            sums[transaction.getTransactionType().ordinal()].add(transaction.getAmount());
+        }
+    }
+
+    public long count(TypeTransaction type) {
+        return counts[type.ordinal()].sum();
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    // in centimes
+    public long sum(TypeTransaction type) {
+        return sums[type.ordinal()].sum();
+    }
+
+    // in centimes
+    public long totalBalance() {
+        return totalBalance.sum();
+    }
+
+    public long accountCount() {
+        return accountCount.sum();
+    }
+}
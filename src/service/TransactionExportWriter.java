@@ -0,0 +1,229 @@
+package service;
+
+import model.Account;
+import model.Transaction;
+import util.DateUtil;
+import util.MoneyUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
+
+/**
+ * Writes transactions as CSV or JSON straight into a FileChannel. Each row is formatted into one
+ * reused StringBuilder, UTF-8 encoded by hand into a direct buffer, and the buffer goes to the
+ * channel whenever it fills, so memory stays at one buffer whatever the number of rows and the
+ * disk sees large sequential writes. Not thread-safe.
+ */
+class TransactionExportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String CSV_HEADER =
+        "transaction_id,date,type,amount,source_account,destination_account,description\n";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final FileChannel channel;
+    private final ExportService.Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder row = new StringBuilder(256);
+    private long rows;
+
+    TransactionExportWriter(FileChannel channel, ExportService.Format format) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        row.append(format == ExportService.Format.CSV ? CSV_HEADER : "[");
+        encodeRow();
+    }
+
+    // a Consumer-friendly write: scans cannot throw IOException, so it travels unchecked
+    void accept(Transaction transaction) {
+        try {
+            write(transaction);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void write(Transaction transaction) throws IOException {
+        if (format == ExportService.Format.CSV) {
+            appendCsv(transaction);
+        } else {
+            appendJson(transaction);
+        }
+        rows++;
+        encodeRow();
+    }
+
+    long getRows() {return rows;}
+
+    // closes the JSON array and writes out what is left in the buffer
+    @Override
+    public void close() throws IOException {
+        if (format == ExportService.Format.JSON) {
+            row.append(rows == 0 ? "]\n" : "\n]\n");
+            encodeRow();
+        }
+        drain();
+    }
+
+    private void appendCsv(Transaction t) {
+        appendUuid(t.getTransactionId()).append(',');
+        DateUtil.formatIsoTo(row, t.getDate()).append(',');
+        row.append(t.getTransactionType().name()).append(',');
+        MoneyUtil.formatTo(row, t.getAmount()).append(',');
+        appendAccountId(t.getSourceAccount()).append(',');
+        appendAccountId(t.getDestinationAccount()).append(',');
+        appendCsvText(t.getDescription());
+        row.append('\n');
+    }
+
+    private void appendJson(Transaction t) {
+        row.append(rows == 0 ? "\n" : ",\n");
+        appendUuid(row.append("{\"transactionId\":\""), t.getTransactionId());
+        DateUtil.formatIsoTo(row.append("\",\"date\":\""), t.getDate());
+        row.append("\",\"type\":\"").append(t.getTransactionType().name());
+        // amount as a JSON number in dirhams, exact to the centime
+        MoneyUtil.formatTo(row.append("\",\"amount\":"), t.getAmount());
+        row.append(",\"sourceAccount\":");
+        appendJsonAccountId(t.getSourceAccount());
+        row.append(",\"destinationAccount\":");
+        appendJsonAccountId(t.getDestinationAccount());
+        row.append(",\"description\":");
+        appendJsonText(t.getDescription());
+        row.append('}');
+    }
+
+    private StringBuilder appendAccountId(Account account) {
+        return account == null ? row : appendUuid(account.getAccountId());
+    }
+
+    private void appendJsonAccountId(Account account) {
+        if (account == null) {
+            row.append("null");
+        } else {
+            appendUuid(row.append('"'), account.getAccountId()).append('"');
+        }
+    }
+
+    private StringBuilder appendUuid(UUID id) {
+        return appendUuid(row, id);
+    }
+
+    // the canonical 8-4-4-4-12 form written from the two longs, UUID.toString() would allocate per row
+    private static StringBuilder appendUuid(StringBuilder out, UUID id) {
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        appendHex(out, most >>> 32, 8).append('-');
+        appendHex(out, most >>> 16, 4).append('-');
+        appendHex(out, most, 4).append('-');
+        appendHex(out, least >>> 48, 4).append('-');
+        return appendHex(out, least, 12);
+    }
+
+    private static StringBuilder appendHex(StringBuilder out, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(HEX[(int) (value >>> shift) & 15]);
+        }
+        return out;
+    }
+
+    // quoted only when needed, inner quotes doubled
+    private void appendCsvText(String text) {
+        if (text == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(text);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    private void appendJsonText(String text) {
+        if (text == null) {
+            row.append("null");
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    row.append("\\\"");
+                    break;
+                case '\\':
+                    row.append("\\\\");
+                    break;
+                case '\n':
+                    row.append("\\n");
+                    break;
+                case '\r':
+                    row.append("\\r");
+                    break;
+                case '\t':
+                    row.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        row.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+                    } else {
+                        row.append(c);
+                    }
+            }
+        }
+        row.append('"');
+    }
+
+    // UTF-8 encodes the row into the buffer, draining it to the channel when it runs out of room
+    private void encodeRow() throws IOException {
+        int length = row.length();
+        for (int i = 0; i < length; i++) {
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+            char c = row.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(row.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, row.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        row.setLength(0);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,28 +1,89 @@
 package service;
 
 import exceptions.InsufficientBalanceException;
+import exceptions.InvalidTransactionException;
 import model.Account;
 import model.Client;
+import model.MergedHistory;
 import model.Transaction;
 import model.enums.TypeTransaction;
 import repository.AccountRepository;
+import repository.TransactionQuery;
 import repository.TransactionRepository;
+import repository.journal.Journal;
+import repository.journal.JournalRecord;
+import service.fraud.AlertStore;
+import service.fraud.FraudAlert;
+import service.fraud.FraudRule;
+import service.fraud.FraudRuleEngine;
+import service.fraud.FraudRules;
+import util.LongIntHashMap;
+import util.MoneyUtil;
 import util.ValidatorUtil;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
 
 public class TransactionService {
 
-    private final TransactionRepository transactionRepository;
+    // transactions above this amount (centimes) are reported as suspicious
+    public static final long LARGE_AMOUNT_THRESHOLD = MoneyUtil.ofDh(10000);
+    // same client, type and amount more than this many times is reported as suspicious
+    public static final int REPEATED_MIN_OCCURRENCES = 3;
+    // velocity limits per client over a sliding window
+    public static final Duration VELOCITY_WINDOW = Duration.ofMinutes(10);
+    public static final int MAX_WITHDRAWALS_PER_WINDOW = 5;
+    public static final long MAX_TRANSFERRED_PER_WINDOW = MoneyUtil.ofDh(50000);
+    // transfer graph limits: rings of up to this many accounts, and distinct counterparties per account
+    public static final int MAX_RING_LENGTH = 4;
+    public static final Duration RING_WINDOW = Duration.ofHours(24);
+    public static final int MAX_COUNTERPARTIES_PER_WINDOW = 10;
+    public static final Duration COUNTERPARTY_WINDOW = Duration.ofHours(1);
+    // fraud rule names, recorded as the reason on each alert
+    public static final String LARGE_AMOUNT = "Large Amount";
+    public static final String REPEATED_PATTERN = "Repeated Pattern";
+    public static final String WITHDRAWAL_VELOCITY = "Withdrawal Velocity";
+    public static final String TRANSFER_VELOCITY = "Transfer Velocity";
+    public static final String TRANSFER_GRAPH = "Transfer Graph";
+    public static final String TRANSFER_RING = "Transfer Ring";
+    public static final String FAN_OUT = "Fan-Out";
+    public static final String FAN_IN = "Fan-In";
+    // most recent alerts kept for the banker
+    private static final int ALERT_CAPACITY = 10_000;
+    // bits needed for a TypeTransaction ordinal in a repeated-pattern group key; the amount surrogate
+    // gets the rest of the low 32 bits, so one scan can tell apart at most MAX_AMOUNT_REFS amounts
+    private static final int TYPE_BITS = 32 - Integer.numberOfLeadingZeros(TypeTransaction.values().length - 1);
+    private static final int MAX_AMOUNT_REFS = 1 << (32 - TYPE_BITS);
+    private static final long NO_GROUP = -1;
 
-    public TransactionService(TransactionRepository transactionRepository, AccountRepository accountRepository) {
+    private final TransactionRepository transactionRepository;
+    private final Journal journal;
+    private final SystemStatistics statistics;
+    private final AccountLocks accountLocks = new AccountLocks();
+    private final FraudRuleEngine fraudEngine = new FraudRuleEngine(
+        List.of(
+            FraudRules.largeAmount(LARGE_AMOUNT, LARGE_AMOUNT_THRESHOLD),
+            FraudRules.repeatedPattern(REPEATED_PATTERN, REPEATED_MIN_OCCURRENCES),
+            FraudRules.maxCountPerWindow(WITHDRAWAL_VELOCITY, TypeTransaction.WITHDRAWAL, MAX_WITHDRAWALS_PER_WINDOW, VELOCITY_WINDOW),
+            FraudRules.maxAmountPerWindow(TRANSFER_VELOCITY, TypeTransaction.TRANSFER, MAX_TRANSFERRED_PER_WINDOW, VELOCITY_WINDOW),
+            FraudRules.transferGraph(TRANSFER_GRAPH, TRANSFER_RING, FAN_OUT, FAN_IN,
+                MAX_RING_LENGTH, RING_WINDOW, MAX_COUNTERPARTIES_PER_WINDOW, COUNTERPARTY_WINDOW)),
+        new AlertStore(ALERT_CAPACITY));
+
+    // takes the AccountService's statistics, so the dashboard totals see both openings and postings
+    public TransactionService(TransactionRepository transactionRepository, AccountRepository accountRepository, Journal journal,
+                              SystemStatistics statistics) {
         this.transactionRepository = transactionRepository;
+        this.journal = journal;
+        this.statistics = statistics;
     }
 
-    public void withdraw(Account account, double amount, String description) {
+    public void withdraw(Account account, long amount, String description) {
         // Validate account
         if (account == null) {
             throw new IllegalArgumentException("Account cannot be null");
@@ -37,16 +98,6 @@ public class TransactionService {
             }
         }
 
-        // Check if sufficient balance
-        if (account.getBalance() < amount) {
-            throw new InsufficientBalanceException("Insufficient balance. Available: " +
-                String.format("%.2f", account.getBalance()) + " DH, Requested: " +
-                String.format("%.2f", amount) + " DH");
-        }
-
-        // Update account balance
-        account.setBalance(account.getBalance() - amount);
-
         // Create withdrawal transaction
         Transaction withdrawal = new Transaction(
             UUID.randomUUID(),
@@ -58,14 +109,27 @@ public class TransactionService {
             null // No destination account for withdrawal
         );
 
-        // Save transaction to repository
-        transactionRepository.save(withdrawal);
-
-        // Add transaction to account's transaction list
-        account.getTransactions().add(withdrawal);
+        PostingEvent event = PostingEvent.started();
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        event.locksAcquired();
+        boolean succeeded = false;
+        try {
+            // Reserve the money with a CAS, no account lock needed
+            if (!account.tryDebit(amount)) {
+                throw insufficientBalance(account, amount);
+            }
+            // Journal, giving the money back if that fails, then record history
+            record(withdrawal, () -> account.credit(amount));
+            store(withdrawal);
+            succeeded = true;
+        } finally {
+            stateLock.unlock();
+            event.commit(withdrawal, succeeded);
+        }
     }
 
-    public void deposit(Account account, double amount, String description) {
+    public void deposit(Account account, long amount, String description) {
         // Validate account
         if (account == null) {
             throw new IllegalArgumentException("Account cannot be null");
@@ -80,9 +144,6 @@ public class TransactionService {
             }
         }
 
-        // Update account balance
-        account.setBalance(account.getBalance() + amount);
-
         // Create Deposit transaction
         Transaction deposit = new Transaction(
                 UUID.randomUUID(),
@@ -94,18 +155,34 @@ public class TransactionService {
                 null // No destination account for deposit
         );
 
-        // Save transaction to repository
-        transactionRepository.save(deposit);
-
-        // Add transaction to account's transaction list
-        account.getTransactions().add(deposit);
+        PostingEvent event = PostingEvent.started();
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        event.locksAcquired();
+        boolean succeeded = false;
+        try {
+            // Journal first so money never shows up before it is durable, then credit atomically
+            record(deposit, () -> {});
+            account.credit(amount);
+            store(deposit);
+            succeeded = true;
+        } finally {
+            stateLock.unlock();
+            event.commit(deposit, succeeded);
+        }
     }
 
-    public void transfer(Account source, Account destination, double amount, String description) {
-        // Validate destination account
+    public void transfer(Account source, Account destination, long amount, String description) {
+        // Validate accounts
+        if (source == null) {
+            throw new IllegalArgumentException("Source account cannot be null");
+        }
         if (destination == null) {
             throw new IllegalArgumentException("Destination account cannot be null");
         }
+        if (source == destination) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
 
         // Validate amount
         if (!ValidatorUtil.isValidTransferAmount(amount)) {
@@ -116,17 +193,6 @@ public class TransactionService {
             }
         }
 
-        // Check if sufficient balance in source account
-        if (source.getBalance() < amount) {
-            throw new InsufficientBalanceException("Insufficient balance. Available: " +
-                String.format("%.2f", source.getBalance()) + " DH, Requested: " +
-                String.format("%.2f", amount) + " DH");
-        }
-
-        // Update account balances
-        source.setBalance(source.getBalance() - amount);
-        destination.setBalance(destination.getBalance() + amount);
-
         // Create transfer transaction
         Transaction transfer = new Transaction(
             UUID.randomUUID(),
@@ -138,156 +204,281 @@ public class TransactionService {
             destination
         );
 
-        // Save transaction to repository
-        transactionRepository.save(transfer);
+        PostingEvent event = PostingEvent.started();
+        Lock stateLock = journal.stateLock().readLock();
+        stateLock.lock();
+        // Multi-account postings still lock both accounts, in a global order so opposite transfers cannot deadlock
+        accountLocks.lock(source, destination);
+        event.locksAcquired();
+        boolean succeeded = false;
+        try {
+            // Withdrawals on the source don't take the lock, so the debit itself is still a CAS
+            if (!source.tryDebit(amount)) {
+                throw insufficientBalance(source, amount);
+            }
+            // Journal both legs as one record, then credit the destination and record histories
+            record(transfer, () -> source.credit(amount));
+            destination.credit(amount);
+            store(transfer);
+            succeeded = true;
+        } finally {
+            accountLocks.unlock(source, destination);
+            stateLock.unlock();
+            event.commit(transfer, succeeded);
+        }
+    }
+
+    // Re-applies a journaled posting during recovery, or a bulk imported one once journaled, without validating or journaling it
+    public void restore(Transaction transaction) {
+        Account source = transaction.getSourceAccount();
+        Account destination = transaction.getDestinationAccount();
+        long amount = transaction.getAmount();
+
+        switch (transaction.getTransactionType()) {
+            case WITHDRAWAL:
+                source.debit(amount);
+                break;
+            case DEPOSIT:
+                source.credit(amount);
+                break;
+            case TRANSFER:
+                source.debit(amount);
+                destination.credit(amount);
+                break;
+        }
+        store(transaction);
+    }
 
-        // Add transaction to both accounts' transaction lists
-        source.getTransactions().add(transfer);
-        destination.getTransactions().add(transfer);
+    // Blocks until the posting is durable in the journal; runs undo if it could not be written.
+    // Callers hold the shared state lock so a checkpoint cannot land between journaling and applying.
+    private void record(Transaction transaction, Runnable undo) {
+        try {
+            journal.append(JournalRecord.posting(transaction)).join();
+        } catch (CompletionException e) {
+            undo.run();
+            throw new InvalidTransactionException("Transaction could not be recorded: " + e.getCause().getMessage());
+        }
     }
 
+    // Stores the transaction in the repository and in the histories of the accounts it touches
+    private void store(Transaction transaction) {
+        transactionRepository.save(transaction);
+        statistics.recordPosting(transaction);
+        fraudEngine.evaluate(transaction);
+        Account source = transaction.getSourceAccount();
+        Account destination = transaction.getDestinationAccount();
+        // histories are safe to append to concurrently and keep themselves in date order
+        source.getTransactions().add(transaction);
+        if (destination != null) {
+            destination.getTransactions().add(transaction);
+        }
+    }
+
+    private static InsufficientBalanceException insufficientBalance(Account account, long requested) {
+        return new InsufficientBalanceException("Insufficient balance. Available: " +
+            MoneyUtil.format(account.getBalance()) + " DH, Requested: " +
+            MoneyUtil.format(requested) + " DH");
+    }
+
+    // All of the client's accounts merged into one date-ordered view; entries are merged as they are read
     public List<Transaction> getTransactions(Client client) {
-        // Get client's primary account
-        Account account = client.getAccounts().get(0);
+        return MergedHistory.oldestFirst(client.getAccounts());
+    }
 
-        // Get transactions and sort by date
-        List<Transaction> transactions = account.getTransactions();
-        transactions.sort((t1, t2) -> t1.getDate().compareTo(t2.getDate()));
+    // Totals come from the running sums each account history keeps, no history is walked
+    public long totalWithdrawals(Client client) {
+        return totalAmount(client, TypeTransaction.WITHDRAWAL);
+    }
 
-        return transactions;
+    public long totalDeposits(Client client) {
+        return totalAmount(client, TypeTransaction.DEPOSIT);
     }
 
-    public double totalWithdrawals(Client client) {
-        Account account = client.getAccounts().get(0);
-        return account.getTransactions().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.WITHDRAWAL)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // A transfer between two of the client's own accounts is in both histories and counts once
+    public long totalTransfers(Client client) {
+        long ownTransfers = 0;
+        for (Account account : client.getAccounts()) {
+            ownTransfers += account.getTransactions().ownTransferAmount();
+        }
+        return totalAmount(client, TypeTransaction.TRANSFER) - ownTransfers / 2;
     }
 
-    public double totalDeposits(Client client) {
-        Account account = client.getAccounts().get(0);
-        return account.getTransactions().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.DEPOSIT)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    private long totalAmount(Client client, TypeTransaction type) {
+        long total = 0;
+        for (Account account : client.getAccounts()) {
+            total += account.getTransactions().totalAmount(type);
+        }
+        return total;
     }
 
-    public double totalTransfers(Client client) {
-        Account account = client.getAccounts().get(0);
-        return account.getTransactions().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.TRANSFER)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // The client's transactions matching the query. Each account is queried for the first
+    // offset + limit matches, already sorted, and the per-account results are merged lazily.
+    public List<Transaction> filterTransactions(Client client, TransactionQuery query) {
+        List<Account> accounts = client.getAccounts();
+        if (accounts.size() == 1) {
+            return transactionRepository.query(query.copy().account(accounts.get(0).getAccountId()));
+        }
+        List<List<Transaction>> perAccount = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            perAccount.add(transactionRepository.query(
+                query.copy().account(account.getAccountId()).page(0, query.getPageEnd())));
+        }
+        return new MergedHistory(accounts, perAccount, query.comparator()).page(query.getOffset(), query.getLimit());
     }
 
-    public List<Transaction> filterTransactions(Client client, Predicate<Transaction> filter) {
-        Account account = client.getAccounts().get(0);
-        return account.getTransactions().stream()
-                .filter(filter)
-                .toList();
+    // banker-wide search over the whole ledger
+    public List<Transaction> queryLedger(TransactionQuery query) {
+        return transactionRepository.query(query);
     }
 
     public List<Transaction> sortTransactionsByDate(Client client, boolean ascending) {
-        Account account = client.getAccounts().get(0);
-        return account.getTransactions().stream()
-                .sorted(ascending ?
-                    (t1, t2) -> t1.getDate().compareTo(t2.getDate()) :
-                    (t1, t2) -> t2.getDate().compareTo(t1.getDate()))
-                .toList();
+        // Every history is already date ordered, so both directions are a merge, never a sort
+        return ascending ? MergedHistory.oldestFirst(client.getAccounts()) : MergedHistory.newestFirst(client.getAccounts());
     }
 
     // System statistics methods
     public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        List<Transaction> transactions = transactionRepository.findAll();
+        event.commit("All Transactions", transactions);
+        return transactions;
     }
 
-    public double getTotalSystemDeposits() {
-        return transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.DEPOSIT)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // System statistics are maintained on every posting, each call below is O(1)
+    public long getTotalSystemDeposits() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        long total = statistics.sum(TypeTransaction.DEPOSIT);
+        event.commit("Total Deposits", total);
+        return total;
     }
 
-    public double getTotalSystemWithdrawals() {
-        return transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.WITHDRAWAL)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public long getTotalSystemWithdrawals() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        long total = statistics.sum(TypeTransaction.WITHDRAWAL);
+        event.commit("Total Withdrawals", total);
+        return total;
     }
 
-    public double getTotalSystemTransfers() {
-        return transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.TRANSFER)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public long getTotalSystemTransfers() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        long total = statistics.sum(TypeTransaction.TRANSFER);
+        event.commit("Total Transfers", total);
+        return total;
     }
 
     public int getTotalTransactionCount() {
-        return transactionRepository.findAll().size();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        int count = (int) statistics.totalCount();
+        event.commit("Transaction Count", count);
+        return count;
     }
 
     public int getDepositCount() {
-        return (int) transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.DEPOSIT)
-                .count();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        int count = (int) statistics.count(TypeTransaction.DEPOSIT);
+        event.commit("Deposit Count", count);
+        return count;
     }
 
     public int getWithdrawalCount() {
-        return (int) transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.WITHDRAWAL)
-                .count();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        int count = (int) statistics.count(TypeTransaction.WITHDRAWAL);
+        event.commit("Withdrawal Count", count);
+        return count;
     }
 
     public int getTransferCount() {
-        return (int) transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getTransactionType() == TypeTransaction.TRANSFER)
-                .count();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        int count = (int) statistics.count(TypeTransaction.TRANSFER);
+        event.commit("Transfer Count", count);
+        return count;
     }
 
     // Suspicious transaction detection methods
+
+    // Flagged transactions, newest first. Transactions are evaluated as they are posted (transfer graph
+    // flags land a moment later, off the posting path), so this is a read.
     public List<Transaction> getSuspiciousTransactions() {
-        List<Transaction> suspicious = new java.util.ArrayList<>();
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        List<Transaction> suspicious = fraudEngine.getAlertStore().alerts().stream()
+                .map(FraudAlert::getTransaction)
+                .collect(java.util.stream.Collectors.toList());
+        event.commit("Suspicious Transactions", suspicious);
+        return suspicious;
+    }
 
-        // Add large amount transactions (>10000 DH)
-        suspicious.addAll(getLargeAmountTransactions(10000.0));
+    // Same as getSuspiciousTransactions, with the reasons each transaction was flagged for
+    public List<FraudAlert> getSuspiciousAlerts() {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        List<FraudAlert> alerts = fraudEngine.getAlertStore().alerts();
+        event.commit("Suspicious Alerts", alerts);
+        return alerts;
+    }
 
-        // Add repeated transactions (same type + amount >3 times per client)
-        suspicious.addAll(getRepeatedTransactions(3));
+    // Re-evaluates the whole ledger in parallel, for state loaded without going through the posting methods
+    public void reevaluateSuspiciousTransactions() {
+        fraudEngine.evaluateAll(transactionRepository.findAll());
+    }
 
-        // Remove duplicates and sort by date (newest first)
-        return suspicious.stream()
-                .distinct()
-                .sorted((t1, t2) -> t2.getDate().compareTo(t1.getDate()))
-                .collect(java.util.stream.Collectors.toList());
+    // the rules behind the alerts, with their evaluation counters
+    public List<FraudRule> getFraudRules() {
+        return fraudEngine.getRules();
     }
 
-    public List<Transaction> getLargeAmountTransactions(double threshold) {
-        return transactionRepository.findAll().stream()
+    // threshold in centimes
+    public List<Transaction> getLargeAmountTransactions(long threshold) {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
+        List<Transaction> large = transactionRepository.findAll().stream()
                 .filter(transaction -> transaction.getAmount() > threshold)
                 .collect(java.util.stream.Collectors.toList());
+        event.commit("Large Amount Transactions", large);
+        return large;
     }
 
+    // Groups on a primitive (client, type, amount) key and only counts in the first pass; the rows of
+    // groups over the threshold are collected in a second pass, in ledger order
     public List<Transaction> getRepeatedTransactions(int minOccurrences) {
+        StatisticsQueryEvent event = StatisticsQueryEvent.started();
         List<Transaction> allTransactions = transactionRepository.findAll();
-        List<Transaction> repeatedTransactions = new java.util.ArrayList<>();
-
-        // Group transactions by client + transaction type + amount
-        java.util.Map<String, List<Transaction>> groupedTransactions = allTransactions.stream()
-                .filter(t -> t.getSourceAccount() != null && t.getSourceAccount().getClient() != null)
-                .collect(java.util.stream.Collectors.groupingBy(t ->
-                    t.getSourceAccount().getClient().getClientId() + "|" +
-                    t.getTransactionType() + "|" +
-                    String.format("%.2f", t.getAmount())
-                ));
-
-        // Find groups with more than minOccurrences transactions
-        for (List<Transaction> group : groupedTransactions.values()) {
-            if (group.size() > minOccurrences) {
-                repeatedTransactions.addAll(group);
+        long[] rowKeys = new long[allTransactions.size()];
+        java.util.Map<UUID, Integer> clientRefs = new java.util.HashMap<>();
+        LongIntHashMap amountRefs = new LongIntHashMap();
+        LongIntHashMap groupCounts = new LongIntHashMap();
+
+        int row = 0;
+        for (Transaction t : allTransactions) {
+            long key = NO_GROUP;
+            if (t.getSourceAccount() != null && t.getSourceAccount().getClient() != null) {
+                int clientRef = clientRefs.computeIfAbsent(t.getSourceAccount().getClient().getClientId(), id -> clientRefs.size());
+                int amountRef = amountRefs.get(t.getAmount(), -1);
+                if (amountRef < 0) {
+                    amountRef = amountRefs.size();
+                    if (amountRef == MAX_AMOUNT_REFS) {
+                        // a larger surrogate would spill into the client bits and merge groups
+                        throw new IllegalStateException("More than " + MAX_AMOUNT_REFS + " distinct amounts to group");
+                    }
+                    amountRefs.put(t.getAmount(), amountRef);
+                }
+                key = groupKey(clientRef, amountRef, t.getTransactionType());
+                groupCounts.addTo(key, 1);
             }
+            rowKeys[row++] = key;
         }
 
+        List<Transaction> repeatedTransactions = new java.util.ArrayList<>();
+        row = 0;
+        for (Transaction t : allTransactions) {
+            long key = rowKeys[row++];
+            if (key != NO_GROUP && groupCounts.get(key, 0) > minOccurrences) {
+                repeatedTransactions.add(t);
+            }
+        }
+        event.commit("Repeated Transactions", repeatedTransactions);
         return repeatedTransactions;
     }
+
+    // client surrogate in the high 32 bits, then the amount surrogate and the type ordinal
+    private static long groupKey(int clientRef, int amountRef, TypeTransaction type) {
+        return ((long) clientRef << 32) | ((long) amountRef << TYPE_BITS) | type.ordinal();
+    }
 }
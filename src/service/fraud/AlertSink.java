@@ -0,0 +1,12 @@
+package service.fraud;
+
+import model.Transaction;
+
+// Where a RuleCheck reports the transactions it flags
+public interface AlertSink {
+    // flags the transaction under the rule's name
+    void flag(Transaction transaction);
+
+    // flags the transaction under a more specific reason, for checks that detect several patterns
+    void flag(Transaction transaction, String reason);
+}
@@ -0,0 +1,71 @@
+package service.fraud;
+
+import model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded store of fraud alerts, ordered by transaction date, newest first. When it is full the
+ * oldest alert is dropped. A transaction flagged again for another reason keeps one alert with
+ * both reasons.
+ */
+public class AlertStore {
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+        .comparing(Transaction::getDate, Comparator.reverseOrder())
+        .thenComparing(Transaction::getTransactionId);
+
+    private final int capacity;
+    private final ConcurrentSkipListMap<Transaction, FraudAlert> alerts = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final Map<UUID, FraudAlert> byTransaction = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public AlertStore(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // records that the transaction was flagged for the given reason
+    public void flag(Transaction transaction, String reason) {
+        FraudAlert alert = byTransaction.computeIfAbsent(transaction.getTransactionId(), id -> {
+            FraudAlert created = new FraudAlert(transaction);
+            alerts.put(transaction, created);
+            size.incrementAndGet();
+            return created;
+        });
+        alert.addReason(reason);
+        while (size.get() > capacity) {
+            Map.Entry<Transaction, FraudAlert> oldest = alerts.pollLastEntry();
+            if (oldest == null) {
+                break;
+            }
+            byTransaction.remove(oldest.getKey().getTransactionId());
+            size.decrementAndGet();
+        }
+    }
+
+    // the transaction's alert, or null when it is not flagged
+    FraudAlert get(UUID transactionId) {
+        return byTransaction.get(transactionId);
+    }
+
+    // newest first
+    public List<FraudAlert> alerts() {
+        return new ArrayList<>(alerts.values());
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public void clear() {
+        alerts.clear();
+        byTransaction.clear();
+        size.set(0);
+    }
+}
@@ -0,0 +1,40 @@
+package service.fraud;
+
+import model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A flagged transaction and the reasons it was flagged for
+public class FraudAlert {
+    final Transaction transaction;
+    final List<String> reasons = new ArrayList<>(2);
+
+    FraudAlert(Transaction transaction) {
+        this.transaction = transaction;
+    }
+
+    //Getters
+    public Transaction getTransaction() {return transaction;}
+
+    public synchronized List<String> getReasons() {
+        return new ArrayList<>(reasons);
+    }
+
+    public synchronized boolean hasReason(String reason) {
+        return reasons.contains(reason);
+    }
+
+    // reasons joined for display, e.g. "Large Amount + Repeated Pattern"
+    public synchronized String getReason() {
+        return String.join(" + ", reasons);
+    }
+
+    synchronized boolean addReason(String reason) {
+        if (reasons.contains(reason)) {
+            return false;
+        }
+        reasons.add(reason);
+        return true;
+    }
+}
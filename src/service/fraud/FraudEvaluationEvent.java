@@ -0,0 +1,62 @@
+package service.fraud;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import model.Transaction;
+
+// Flight recorder event for the fraud rules run inline on one posting; disabled by default
+@Name("bank.FraudEvaluation")
+@Label("Fraud Evaluation")
+@Category({"Bank", "Fraud"})
+@Description("Every fraud rule evaluated against one transaction")
+@Enabled(false)
+@StackTrace(false)
+final class FraudEvaluationEvent extends Event {
+    @Label("Transaction")
+    String transactionId;
+
+    @Label("Type")
+    String transactionType;
+
+    @Label("Amount")
+    @Description("In centimes")
+    long amount;
+
+    @Label("Rules")
+    int rules;
+
+    @Label("Flagged")
+    boolean flagged;
+
+    @Label("Reasons")
+    @Description("Every reason the transaction is flagged for, comma separated")
+    String reasons;
+
+    static FraudEvaluationEvent started() {
+        FraudEvaluationEvent event = new FraudEvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    // fills in the outcome from the alert store and commits it, when a recording wants this event
+    void commit(Transaction transaction, int rules, AlertStore alertStore) {
+        if (!shouldCommit()) {
+            return;
+        }
+        transactionId = transaction.getTransactionId().toString();
+        transactionType = transaction.getTransactionType().name();
+        amount = transaction.getAmount();
+        this.rules = rules;
+        FraudAlert alert = alertStore.get(transaction.getTransactionId());
+        flagged = alert != null;
+        if (alert != null) {
+            reasons = String.join(", ", alert.getReasons());
+        }
+        commit();
+    }
+}
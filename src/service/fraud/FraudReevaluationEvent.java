@@ -0,0 +1,26 @@
+package service.fraud;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Flight recorder event for a parallel re-evaluation of the whole ledger; disabled by default
+@Name("bank.FraudReevaluation")
+@Label("Fraud Re-evaluation")
+@Category({"Bank", "Fraud"})
+@Description("Every fraud rule evaluated again over the whole ledger")
+@Enabled(false)
+final class FraudReevaluationEvent extends Event {
+    @Label("Transactions")
+    long transactions;
+
+    @Label("Partitions")
+    int partitions;
+
+    @Label("Alerts")
+    @Description("Alerts in the store once the ledger has been evaluated")
+    int alerts;
+}
@@ -0,0 +1,103 @@
+package service.fraud;
+
+import model.Transaction;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named fraud rule: a chain of stateless conditions followed by a check. The conditions are
+ * ANDed and short-circuit on the first rejection. Their order is re-derived from measured cost and
+ * rejection rate every few thousand evaluations, so the cheapest, most selective one runs first
+ * whatever order the rule was declared in. Timing is sampled to keep nanoTime off most evaluations.
+ */
+public class FraudRule {
+    private static final int SAMPLE_EVERY = 64;
+    private static final int REORDER_EVERY = 4096;
+    private static final Comparator<RuleCondition> BY_RANK = Comparator.comparingDouble(RuleCondition::rank);
+
+    private final String name;
+    private final String description;
+    private final RuleCheck check;
+    private volatile RuleCondition[] conditions;
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    public FraudRule(String name, String description, List<RuleCondition> conditions, RuleCheck check) {
+        this.name = name;
+        this.description = description;
+        this.conditions = conditions.toArray(new RuleCondition[0]);
+        this.check = check;
+    }
+
+    // runs the conditions and, if they all pass, the check; flagged transactions go to the sink
+    void evaluate(Transaction transaction, AlertSink sink) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean timed = random.nextInt(SAMPLE_EVERY) == 0;
+        long start = timed ? System.nanoTime() : 0;
+        evaluated.increment();
+        if (random.nextInt(REORDER_EVERY) == 0) {
+            reorder();
+        }
+
+        for (RuleCondition condition : conditions) {
+            if (!condition.test(transaction, timed)) {
+                recordTime(timed, start);
+                return;
+            }
+        }
+        matched.increment();
+        check.test(transaction, sink);
+        recordTime(timed, start);
+    }
+
+    void recordFired() {
+        fired.increment();
+    }
+
+    void reset() {
+        check.reset();
+    }
+
+    void flush() {
+        check.flush();
+    }
+
+    boolean isPerClient() {
+        return check.isPerClient();
+    }
+
+    // racing reorders are harmless, each publishes a complete, sorted copy
+    private void reorder() {
+        RuleCondition[] sorted = conditions.clone();
+        Arrays.sort(sorted, BY_RANK);
+        conditions = sorted;
+    }
+
+    private void recordTime(boolean timed, long start) {
+        if (timed) {
+            sampledNanos.add(System.nanoTime() - start);
+            samples.increment();
+        }
+    }
+
+    //Getters
+    public String getName() {return name;}
+    public String getDescription() {return description;}
+    public List<RuleCondition> getConditions() {return List.of(conditions);}
+    public long getEvaluated() {return evaluated.sum();}
+    public long getMatched() {return matched.sum();}
+    public long getFired() {return fired.sum();}
+
+    // average nanoseconds per evaluation, conditions and check together, from sampled evaluations
+    public double getAverageNanos() {
+        long sampleCount = samples.sum();
+        return sampleCount == 0 ? 0 : (double) sampledNanos.sum() / sampleCount;
+    }
+}
@@ -0,0 +1,116 @@
+package service.fraud;
+
+import model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a set of fraud rules against transactions and records each flag in the AlertStore under
+ * the name of the rule that fired, or the more specific reason its check gave. The same rules run
+ * inline, one posting at a time, and in batch over a whole ledger. The batch splits the ledger by
+ * source client and evaluates the partitions in parallel, each in ledger order, which is all the
+ * per-client state of the checks needs. Rules whose state spans clients then get the whole ledger
+ * in order on one thread.
+ *
+ * Every rule runs on every transaction since each contributes its own reason; the short-circuiting
+ * happens inside a rule, across its conditions.
+ */
+public class FraudRuleEngine {
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final List<FraudRule> rules;
+    private final List<AlertSink> sinks = new ArrayList<>();
+    private final AlertStore alertStore;
+
+    public FraudRuleEngine(List<FraudRule> rules, AlertStore alertStore) {
+        this.rules = List.copyOf(rules);
+        this.alertStore = alertStore;
+        // one sink per rule, built once so the inline path does not allocate it per posting
+        for (FraudRule rule : this.rules) {
+            sinks.add(new AlertSink() {
+                @Override
+                public void flag(Transaction transaction) {
+                    flag(transaction, rule.getName());
+                }
+
+                @Override
+                public void flag(Transaction transaction, String reason) {
+                    rule.recordFired();
+                    alertStore.flag(transaction, reason);
+                }
+            });
+        }
+    }
+
+    public void evaluate(Transaction transaction) {
+        FraudEvaluationEvent event = FraudEvaluationEvent.started();
+        for (int i = 0; i < rules.size(); i++) {
+            rules.get(i).evaluate(transaction, sinks.get(i));
+        }
+        event.commit(transaction, rules.size(), alertStore);
+    }
+
+    // runs only the per-client rules, or only the others
+    private void evaluate(Transaction transaction, boolean perClient) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).isPerClient() == perClient) {
+                rules.get(i).evaluate(transaction, sinks.get(i));
+            }
+        }
+    }
+
+    // forgets all rule state and alerts, then evaluates the ledger again in parallel
+    public void evaluateAll(List<Transaction> transactions) {
+        FraudReevaluationEvent event = new FraudReevaluationEvent();
+        event.begin();
+        rules.forEach(FraudRule::reset);
+        alertStore.clear();
+
+        int partitionCount = ForkJoinPool.getCommonPoolParallelism() * PARTITIONS_PER_THREAD;
+        List<List<Transaction>> partitions = new ArrayList<>(partitionCount);
+        for (int p = 0; p < partitionCount; p++) {
+            partitions.add(new ArrayList<>(transactions.size() / partitionCount + 1));
+        }
+        for (Transaction transaction : transactions) {
+            partitions.get(partitionOf(transaction, partitionCount)).add(transaction);
+        }
+        IntStream.range(0, partitionCount).parallel()
+            .forEach(p -> partitions.get(p).forEach(transaction -> evaluate(transaction, true)));
+
+        if (rules.stream().anyMatch(rule -> !rule.isPerClient())) {
+            transactions.forEach(transaction -> evaluate(transaction, false));
+        }
+        flush();
+
+        if (event.shouldCommit()) {
+            event.transactions = transactions.size();
+            event.partitions = partitionCount;
+            event.alerts = alertStore.size();
+            event.commit();
+        }
+    }
+
+    // waits for checks that flag asynchronously to catch up with every transaction evaluated so far
+    public void flush() {
+        rules.forEach(FraudRule::flush);
+    }
+
+    public List<FraudRule> getRules() {
+        return rules;
+    }
+
+    public AlertStore getAlertStore() {
+        return alertStore;
+    }
+
+    private static int partitionOf(Transaction transaction, int partitionCount) {
+        if (transaction.getSourceAccount() == null || transaction.getSourceAccount().getClient() == null) {
+            return 0;
+        }
+        int hash = transaction.getSourceAccount().getClient().getClientId().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+}
@@ -0,0 +1,67 @@
+package service.fraud;
+
+import model.Transaction;
+import model.enums.TypeTransaction;
+import util.MoneyUtil;
+
+import java.time.Duration;
+import java.util.List;
+
+// Factories for the built-in fraud rules
+public class FraudRules {
+
+    // amount strictly above the threshold (centimes)
+    public static FraudRule largeAmount(String name, long threshold) {
+        return new FraudRule(name, ">" + MoneyUtil.format(threshold) + " DH",
+            List.of(new RuleCondition("amount>" + MoneyUtil.format(threshold), t -> t.getAmount() > threshold)),
+            (transaction, sink) -> sink.flag(transaction));
+    }
+
+    // same client, type and amount more than minOccurrences times
+    public static FraudRule repeatedPattern(String name, int minOccurrences) {
+        return new FraudRule(name, ">" + minOccurrences + " times",
+            List.of(hasSourceClient()),
+            new RepeatedPatternCheck(minOccurrences));
+    }
+
+    // more than maxCount transactions of the type by one client within the window
+    public static FraudRule maxCountPerWindow(String name, TypeTransaction type, int maxCount, Duration window) {
+        return new FraudRule(name, ">" + maxCount + " " + type + " in " + window.toMinutes() + " min",
+            List.of(ofType(type), hasSourceClient()),
+            new VelocityCheck(maxCount, Long.MAX_VALUE, window));
+    }
+
+    // more than maxAmount centimes of the type by one client within the window
+    public static FraudRule maxAmountPerWindow(String name, TypeTransaction type, long maxAmount, Duration window) {
+        return new FraudRule(name, ">" + MoneyUtil.format(maxAmount) + " DH " + type + " in " + window.toMinutes() + " min",
+            List.of(ofType(type), hasSourceClient()),
+            new VelocityCheck(Integer.MAX_VALUE, maxAmount, window));
+    }
+
+    // Transfers that close a ring of up to maxRingLength accounts within ringWindow, or give an
+    // account more than maxFan new counterparties within fanWindow, flagged under the given reasons
+    public static FraudRule transferGraph(String name, String ringReason, String fanOutReason, String fanInReason,
+                                          int maxRingLength, Duration ringWindow, int maxFan, Duration fanWindow) {
+        return new FraudRule(name, "ring of <=" + maxRingLength + " accounts in " + ringWindow.toHours() + " h, >"
+                + maxFan + " counterparties in " + fanWindow.toMinutes() + " min",
+            List.of(ofType(TypeTransaction.TRANSFER), hasDestination()),
+            new TransferGraphCheck(new TransferGraph(maxRingLength, ringWindow, maxFan, fanWindow),
+                ringReason, fanOutReason, fanInReason));
+    }
+
+    public static RuleCondition ofType(TypeTransaction type) {
+        return new RuleCondition("type=" + type, t -> t.getTransactionType() == type);
+    }
+
+    public static RuleCondition hasSourceClient() {
+        return new RuleCondition("source client", FraudRules::sourceClientPresent);
+    }
+
+    public static RuleCondition hasDestination() {
+        return new RuleCondition("destination", t -> t.getSourceAccount() != null && t.getDestinationAccount() != null);
+    }
+
+    private static boolean sourceClientPresent(Transaction transaction) {
+        return transaction.getSourceAccount() != null && transaction.getSourceAccount().getClient() != null;
+    }
+}
@@ -0,0 +1,81 @@
+package service.fraud;
+
+import model.Transaction;
+import model.enums.TypeTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The same client posted the same type and amount more than minOccurrences times. The first
+ * minOccurrences are held per key and flagged together once the key goes over, later ones are
+ * flagged as they arrive. Expects transactions with a source client.
+ */
+class RepeatedPatternCheck implements RuleCheck {
+    private final int minOccurrences;
+    private final Map<RepeatKey, RepeatState> repeats = new ConcurrentHashMap<>();
+
+    RepeatedPatternCheck(int minOccurrences) {
+        this.minOccurrences = minOccurrences;
+    }
+
+    @Override
+    public void test(Transaction transaction, AlertSink sink) {
+        RepeatKey key = new RepeatKey(transaction.getSourceAccount().getClient().getClientId(),
+            transaction.getTransactionType(), transaction.getAmount());
+        List<Transaction> released = new ArrayList<>(1);
+        repeats.compute(key, (k, state) -> {
+            RepeatState current = state != null ? state : new RepeatState();
+            current.count++;
+            if (current.count <= minOccurrences) {
+                current.held.add(transaction);
+            } else {
+                // crossing the threshold releases the held transactions, after that flag one by one
+                released.addAll(current.held);
+                current.held.clear();
+                released.add(transaction);
+            }
+            return current;
+        });
+        released.forEach(sink::flag);
+    }
+
+    @Override
+    public void reset() {
+        repeats.clear();
+    }
+
+    private static final class RepeatKey {
+        final UUID clientId;
+        final TypeTransaction type;
+        final long amount;
+
+        RepeatKey(UUID clientId, TypeTransaction type, long amount) {
+            this.clientId = clientId;
+            this.type = type;
+            this.amount = amount;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RepeatKey)) {
+                return false;
+            }
+            RepeatKey key = (RepeatKey) other;
+            return amount == key.amount && type == key.type && clientId.equals(key.clientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return (clientId.hashCode() * 31 + type.ordinal()) * 31 + Long.hashCode(amount);
+        }
+    }
+
+    private static final class RepeatState {
+        int count;
+        final List<Transaction> held = new ArrayList<>();
+    }
+}
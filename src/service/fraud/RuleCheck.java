@@ -0,0 +1,29 @@
+package service.fraud;
+
+import model.Transaction;
+
+/**
+ * The part of a fraud rule that runs once all of its conditions passed. It reports every
+ * transaction it flags to the sink: usually the one being checked, a pattern check may also
+ * release earlier transactions it held until the pattern was confirmed.
+ *
+ * A per-client check keeps state only keyed by the source account's client: the batch run
+ * evaluates different clients on different threads, each client's transactions in ledger order.
+ * A check whose state spans clients says so with isPerClient() and must be thread-safe; the batch
+ * run then feeds it the whole ledger in order on one thread.
+ *
+ * A check may hand its work off to another thread and flag later; flush() then waits for it.
+ */
+public interface RuleCheck {
+    void test(Transaction transaction, AlertSink sink);
+
+    default boolean isPerClient() {
+        return true;
+    }
+
+    // forgets any state, before the ledger is evaluated again
+    default void reset() {}
+
+    // waits until every transaction passed to test() so far has been checked
+    default void flush() {}
+}
@@ -0,0 +1,58 @@
+package service.fraud;
+
+import model.Transaction;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Named, stateless predicate a transaction must pass before a rule's check runs, e.g.
+ * "type=WITHDRAWAL" or "amount>10000.00". It counts how often it rejects and samples how long it
+ * takes, which is what FraudRule uses to put the cheapest, most selective condition first. Since
+ * conditions get reordered, each must be safe to test on any transaction on its own.
+ */
+public class RuleCondition {
+    private final String name;
+    private final Predicate<Transaction> predicate;
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    public RuleCondition(String name, Predicate<Transaction> predicate) {
+        this.name = name;
+        this.predicate = predicate;
+    }
+
+    boolean test(Transaction transaction, boolean timed) {
+        evaluated.increment();
+        boolean passed;
+        if (timed) {
+            long start = System.nanoTime();
+            passed = predicate.test(transaction);
+            sampledNanos.add(System.nanoTime() - start);
+            samples.increment();
+        } else {
+            passed = predicate.test(transaction);
+        }
+        if (!passed) {
+            rejected.increment();
+        }
+        return passed;
+    }
+
+    // Expected cost per rejection: average cost divided by the share of transactions it rejects.
+    // Ordering an AND chain by this ascending minimizes the expected cost of the chain.
+    double rank() {
+        long evaluations = evaluated.sum();
+        long sampleCount = samples.sum();
+        double cost = sampleCount == 0 ? 1 : Math.max((double) sampledNanos.sum() / sampleCount, 1);
+        double rejectRate = evaluations == 0 ? 0.5 : (double) rejected.sum() / evaluations;
+        return cost / Math.max(rejectRate, 1e-6);
+    }
+
+    //Getters
+    public String getName() {return name;}
+    public long getEvaluated() {return evaluated.sum();}
+    public long getRejected() {return rejected.sum();}
+}
@@ -0,0 +1,66 @@
+package service.fraud;
+
+import java.util.Arrays;
+
+/**
+ * Count and total amount of the postings in a sliding time window, kept in a fixed ring of time
+ * buckets. Adding a posting expires the buckets the window slid past and updates running totals,
+ * so both add and read are O(buckets) at worst and memory never depends on the history length.
+ * The window covers the newest bucket and the buckets - 1 before it. Not thread-safe.
+ */
+class SlidingWindowCounter {
+    private final long bucketNanos;
+    private final int[] counts;
+    private final long[] sums;
+    private long newestBucket = Long.MIN_VALUE;
+    private int count;
+    private long sum;
+
+    SlidingWindowCounter(long windowNanos, int buckets) {
+        this.bucketNanos = Math.max(windowNanos / buckets, 1);
+        this.counts = new int[buckets];
+        this.sums = new long[buckets];
+    }
+
+    // adds a posting; postings older than the window (late arrivals) are ignored
+    void add(long epochNanos, long amount) {
+        long bucket = Math.floorDiv(epochNanos, bucketNanos);
+        if (bucket > newestBucket) {
+            advanceTo(bucket);
+        } else if (bucket <= newestBucket - counts.length) {
+            return;
+        }
+        int slot = Math.floorMod(bucket, counts.length);
+        counts[slot]++;
+        sums[slot] += amount;
+        count++;
+        sum += amount;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long sum() {
+        return sum;
+    }
+
+    // clears the buckets that are reused for newestBucket + 1 .. bucket
+    private void advanceTo(long bucket) {
+        if (newestBucket == Long.MIN_VALUE || bucket - newestBucket >= counts.length) {
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, 0);
+            count = 0;
+            sum = 0;
+        } else {
+            for (long expired = newestBucket + 1; expired <= bucket; expired++) {
+                int slot = Math.floorMod(expired, counts.length);
+                count -= counts[slot];
+                sum -= sums[slot];
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+        }
+        newestBucket = bucket;
+    }
+}
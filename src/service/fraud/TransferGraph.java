@@ -0,0 +1,308 @@
+package service.fraud;
+
+import util.LongIntHashMap;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Directed graph of transfers between accounts, updated one transfer at a time. Accounts get int
+ * surrogates and edges live in primitive arrays, chained per source account, so millions of edges
+ * cost a few dozen bytes each. What the ring search reads (target, next edge of the same source,
+ * last transfer time) is packed side by side in one array so each edge visited is one cache line;
+ * total amount and transfer count live apart.
+ *
+ * Each transfer is checked against the graph right away, in bounded time:
+ *  - ring: a path of recent edges back from the destination to the source closes a cycle of 3 to
+ *    maxRingLength accounts (A→B→C→A). The search is depth-limited and stops after SEARCH_BUDGET
+ *    edges, so a hub account cannot make it expensive. An account is expanded again when a
+ *    shorter path reaches it, so a long detour explored first cannot hide a ring that fits.
+ *  - fan-out / fan-in: the source sent to, or the destination received from, more than maxFan
+ *    distinct counterparties within the fan window. Each account keeps the times of its last
+ *    maxFan + 1 new counterparties in a ring, so this is a single comparison.
+ * An edge whose last transfer is older than the longer of the two windows, counted back from the
+ * newest transfer seen, can no longer be part of either pattern. Such edges are swept out whenever
+ * the edge count has doubled since the last sweep, so memory follows the edges still inside the
+ * window, not the whole transfer history.
+ * Not thread-safe.
+ */
+public class TransferGraph {
+    public static final int RING = 1;
+    public static final int FAN_OUT = 2;
+    public static final int FAN_IN = 4;
+
+    private static final int NO_EDGE = -1;
+    private static final int SEARCH_BUDGET = 512;
+    // fewest edges before a sweep for expired ones is worth it
+    private static final int MIN_SWEEP_EDGES = 1024;
+
+    private final int maxRingLength;
+    private final long ringWindowNanos;
+    private final int maxFan;
+    private final long fanWindowNanos;
+    // how long an edge is kept after its last transfer
+    private final long retentionNanos;
+
+    // accounts
+    private final Map<UUID, Integer> accountRefs = new HashMap<>();
+    private int accountCount;
+    private int[] firstOut;
+    private long[] fanOutTimes;
+    private long[] fanInTimes;
+    private int[] fanOutNext;
+    private int[] fanInNext;
+    private int[] visitMarks;
+    // fewest path edges an account was reached with in the search marked in visitMarks
+    private int[] visitDepths;
+    private int searchId;
+
+    // edges
+    private final LongIntHashMap edgeByPair = new LongIntHashMap();
+    // per edge: [target << 32 | next edge of the same source, last transfer time]
+    private long[] edgeLinks;
+    private long[] edgeAmounts;
+    private int[] edgeTransfers;
+    private int edgeCount;
+    private int sweepAt;
+    private long newestNanos;
+
+    // per-depth edge cursors of the ring search, reused between searches
+    private final int[] searchCursors;
+
+    public TransferGraph(int maxRingLength, Duration ringWindow, int maxFan, Duration fanWindow) {
+        this.maxRingLength = maxRingLength;
+        this.ringWindowNanos = ringWindow.toNanos();
+        this.maxFan = maxFan;
+        this.fanWindowNanos = fanWindow.toNanos();
+        this.retentionNanos = Math.max(ringWindowNanos, fanWindowNanos);
+        this.searchCursors = new int[Math.max(maxRingLength, 1)];
+        clear();
+    }
+
+    /**
+     * Adds a transfer to the graph and returns which patterns it completes, as a combination of
+     * RING, FAN_OUT and FAN_IN (0 when none).
+     */
+    public int recordTransfer(UUID sourceId, UUID destinationId, long epochNanos, long amount) {
+        int source = accountRef(sourceId);
+        int destination = accountRef(destinationId);
+        long pair = ((long) source << 32) | destination;
+
+        newestNanos = Math.max(newestNanos, epochNanos);
+        int edge = edgeByPair.get(pair, NO_EDGE);
+        boolean newCounterparty;
+        if (edge == NO_EDGE) {
+            if (edgeCount >= sweepAt) {
+                sweepExpiredEdges();
+            }
+            edge = addEdge(source, destination);
+            edgeByPair.put(pair, edge);
+            newCounterparty = true;
+        } else {
+            newCounterparty = epochNanos - lastNanos(edge) > fanWindowNanos;
+        }
+        edgeAmounts[edge] += amount;
+        edgeTransfers[edge]++;
+        edgeLinks[2 * edge + 1] = Math.max(lastNanos(edge), epochNanos);
+
+        int found = 0;
+        if (closesRing(source, destination, epochNanos - ringWindowNanos)) {
+            found |= RING;
+        }
+        // a fan can only grow when a counterparty shows up for the first time in the window
+        if (newCounterparty) {
+            if (fanExceeded(fanOutTimes, fanOutNext, source, epochNanos)) {
+                found |= FAN_OUT;
+            }
+            if (fanExceeded(fanInTimes, fanInNext, destination, epochNanos)) {
+                found |= FAN_IN;
+            }
+        }
+        return found;
+    }
+
+    // total centimes transferred from one account to the other while their edge was kept, 0 if
+    // they never did or their last transfer has left the window
+    public long transferredBetween(UUID sourceId, UUID destinationId) {
+        Integer source = accountRefs.get(sourceId);
+        Integer destination = accountRefs.get(destinationId);
+        if (source == null || destination == null) {
+            return 0;
+        }
+        int edge = edgeByPair.get(((long) source << 32) | destination, NO_EDGE);
+        return edge == NO_EDGE ? 0 : edgeAmounts[edge];
+    }
+
+    public int getAccountCount() {return accountCount;}
+    public int getEdgeCount() {return edgeCount;}
+
+    public void clear() {
+        accountRefs.clear();
+        accountCount = 0;
+        firstOut = new int[16];
+        fanOutTimes = new long[16 * (maxFan + 1)];
+        fanInTimes = new long[16 * (maxFan + 1)];
+        fanOutNext = new int[16];
+        fanInNext = new int[16];
+        visitMarks = new int[16];
+        visitDepths = new int[16];
+        searchId = 0;
+
+        edgeByPair.clear();
+        edgeLinks = new long[2 * 64];
+        edgeAmounts = new long[64];
+        edgeTransfers = new int[64];
+        edgeCount = 0;
+        sweepAt = MIN_SWEEP_EDGES;
+        newestNanos = Long.MIN_VALUE;
+    }
+
+    // Depth-limited search for a path of 2 to maxRingLength - 1 recent edges from the destination
+    // back to the source; with the new edge that is a ring of 3 to maxRingLength accounts.
+    private boolean closesRing(int source, int destination, long cutoffNanos) {
+        int maxPathEdges = maxRingLength - 1;
+        if (maxPathEdges < 2) {
+            return false;
+        }
+        if (++searchId == 0) {
+            Arrays.fill(visitMarks, 0);
+            searchId = 1;
+        }
+        visitMarks[destination] = searchId;
+        visitDepths[destination] = 0;
+        searchCursors[0] = firstOut[destination];
+        int depth = 0;
+        int budget = SEARCH_BUDGET;
+
+        while (depth >= 0) {
+            int edge = searchCursors[depth];
+            if (edge == NO_EDGE) {
+                depth--;
+                continue;
+            }
+            long link = edgeLinks[2 * edge];
+            searchCursors[depth] = (int) link;
+            if (--budget < 0) {
+                return false;
+            }
+            if (lastNanos(edge) < cutoffNanos) {
+                continue;
+            }
+            int next = (int) (link >>> 32);
+            int pathEdges = depth + 1;
+            if (next == source) {
+                if (pathEdges >= 2) {
+                    return true;
+                }
+            } else if (pathEdges < maxPathEdges && (visitMarks[next] != searchId || visitDepths[next] > pathEdges)) {
+                visitMarks[next] = searchId;
+                visitDepths[next] = pathEdges;
+                depth++;
+                searchCursors[depth] = firstOut[next];
+            }
+        }
+        return false;
+    }
+
+    // records a new counterparty time in the account's ring and tells whether maxFan + 1 of them fit in the window
+    private boolean fanExceeded(long[] times, int[] nextSlots, int account, long epochNanos) {
+        int slots = maxFan + 1;
+        int base = account * slots;
+        int slot = nextSlots[account];
+        times[base + slot] = epochNanos;
+        slot = slot + 1 == slots ? 0 : slot + 1;
+        nextSlots[account] = slot;
+        // the slot written next holds the oldest of the last maxFan + 1 counterparties
+        return times[base + slot] != Long.MIN_VALUE && epochNanos - times[base + slot] <= fanWindowNanos;
+    }
+
+    private int accountRef(UUID accountId) {
+        Integer ref = accountRefs.get(accountId);
+        if (ref != null) {
+            return ref;
+        }
+        int account = accountCount++;
+        accountRefs.put(accountId, account);
+        if (account == firstOut.length) {
+            int capacity = account * 2;
+            firstOut = Arrays.copyOf(firstOut, capacity);
+            fanOutTimes = Arrays.copyOf(fanOutTimes, capacity * (maxFan + 1));
+            fanInTimes = Arrays.copyOf(fanInTimes, capacity * (maxFan + 1));
+            fanOutNext = Arrays.copyOf(fanOutNext, capacity);
+            fanInNext = Arrays.copyOf(fanInNext, capacity);
+            visitMarks = Arrays.copyOf(visitMarks, capacity);
+            visitDepths = Arrays.copyOf(visitDepths, capacity);
+        }
+        firstOut[account] = NO_EDGE;
+        Arrays.fill(fanOutTimes, account * (maxFan + 1), (account + 1) * (maxFan + 1), Long.MIN_VALUE);
+        Arrays.fill(fanInTimes, account * (maxFan + 1), (account + 1) * (maxFan + 1), Long.MIN_VALUE);
+        return account;
+    }
+
+    // new edges go to the head of the source's list, so the newest counterparties are searched first
+    private int addEdge(int source, int destination) {
+        if (edgeCount == edgeAmounts.length) {
+            int capacity = edgeCount * 2;
+            edgeLinks = Arrays.copyOf(edgeLinks, 2 * capacity);
+            edgeAmounts = Arrays.copyOf(edgeAmounts, capacity);
+            edgeTransfers = Arrays.copyOf(edgeTransfers, capacity);
+        }
+        int edge = edgeCount++;
+        edgeLinks[2 * edge] = ((long) destination << 32) | (firstOut[source] & 0xFFFFFFFFL);
+        edgeLinks[2 * edge + 1] = Long.MIN_VALUE;
+        firstOut[source] = edge;
+        return edge;
+    }
+
+    // Copies the edges still inside the retention window into arrays sized for them, keeping each
+    // source's list in its newest-first order, then waits for the edge count to double again.
+    private void sweepExpiredEdges() {
+        long cutoffNanos = newestNanos - retentionNanos;
+        int live = 0;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (lastNanos(edge) >= cutoffNanos) {
+                live++;
+            }
+        }
+        sweepAt = Math.max(MIN_SWEEP_EDGES, 2 * live);
+        long[] keptLinks = new long[2 * sweepAt];
+        long[] keptAmounts = new long[sweepAt];
+        int[] keptTransfers = new int[sweepAt];
+        int kept = 0;
+        edgeByPair.clear();
+        for (int account = 0; account < accountCount; account++) {
+            int first = NO_EDGE;
+            int previous = NO_EDGE;
+            for (int edge = firstOut[account]; edge != NO_EDGE; edge = (int) edgeLinks[2 * edge]) {
+                if (lastNanos(edge) < cutoffNanos) {
+                    continue;
+                }
+                int copy = kept++;
+                long target = edgeLinks[2 * edge] >>> 32;
+                keptLinks[2 * copy] = (target << 32) | (NO_EDGE & 0xFFFFFFFFL);
+                keptLinks[2 * copy + 1] = lastNanos(edge);
+                keptAmounts[copy] = edgeAmounts[edge];
+                keptTransfers[copy] = edgeTransfers[edge];
+                if (previous == NO_EDGE) {
+                    first = copy;
+                } else {
+                    keptLinks[2 * previous] = (keptLinks[2 * previous] & 0xFFFFFFFF00000000L) | copy;
+                }
+                previous = copy;
+                edgeByPair.put(((long) account << 32) | target, copy);
+            }
+            firstOut[account] = first;
+        }
+        edgeLinks = keptLinks;
+        edgeAmounts = keptAmounts;
+        edgeTransfers = keptTransfers;
+        edgeCount = kept;
+    }
+
+    private long lastNanos(int edge) {
+        return edgeLinks[2 * edge + 1];
+    }
+}
@@ -0,0 +1,117 @@
+package service.fraud;
+
+import model.Transaction;
+import util.DateUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds transfers into a TransferGraph and flags the ones that close a ring or push an account
+ * over its fan-out or fan-in limit, each under its own reason. Expects transfers with a source and
+ * a destination account.
+ *
+ * The graph spans all clients, so it belongs to one consumer thread: test() only queues the
+ * transfer, and the flags land in the sink shortly after the posting returns. Postings between
+ * unrelated accounts never wait on each other here. flush() waits until everything queued so far
+ * has been checked.
+ *
+ * The queue holds at most QUEUE_CAPACITY transfers. When it is full, test() waits for room, so a
+ * burst of transfers slows postings down instead of growing the queue or skipping checks.
+ */
+class TransferGraphCheck implements RuleCheck {
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private final TransferGraph graph;
+    private final String ringReason;
+    private final String fanOutReason;
+    private final String fanInReason;
+    private volatile ThreadPoolExecutor consumer;
+
+    TransferGraphCheck(TransferGraph graph, String ringReason, String fanOutReason, String fanInReason) {
+        this.graph = graph;
+        this.ringReason = ringReason;
+        this.fanOutReason = fanOutReason;
+        this.fanInReason = fanInReason;
+    }
+
+    @Override
+    public void test(Transaction transaction, AlertSink sink) {
+        consumer().execute(() -> record(transaction, sink));
+    }
+
+    @Override
+    public boolean isPerClient() {
+        return false;
+    }
+
+    // transfers queued before the reset are checked against the old graph first
+    @Override
+    public void reset() {
+        await(consumer().submit(graph::clear));
+    }
+
+    @Override
+    public void flush() {
+        await(consumer().submit(() -> {}));
+    }
+
+    // runs on the consumer thread only
+    private void record(Transaction transaction, AlertSink sink) {
+        int found = graph.recordTransfer(transaction.getSourceAccount().getAccountId(),
+            transaction.getDestinationAccount().getAccountId(),
+            DateUtil.toEpochNanos(transaction.getDate()), transaction.getAmount());
+        if ((found & TransferGraph.RING) != 0) {
+            sink.flag(transaction, ringReason);
+        }
+        if ((found & TransferGraph.FAN_OUT) != 0) {
+            sink.flag(transaction, fanOutReason);
+        }
+        if ((found & TransferGraph.FAN_IN) != 0) {
+            sink.flag(transaction, fanInReason);
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the transfer graph", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transfer graph update failed", e.getCause());
+        }
+    }
+
+    private ThreadPoolExecutor consumer() {
+        if (consumer == null) {
+            synchronized (this) {
+                if (consumer == null) {
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                            Thread thread = new Thread(runnable, "transfer-graph");
+                            thread.setDaemon(true);
+                            return thread;
+                        }, TransferGraphCheck::waitForRoom);
+                    executor.prestartAllCoreThreads();
+                    consumer = executor;
+                }
+            }
+        }
+        return consumer;
+    }
+
+    // overflow policy: the caller waits until the consumer has taken something off the full queue
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor executor) {
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the transfer graph", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package service.fraud;
+
+import model.Transaction;
+import util.DateUtil;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * More than maxCount postings, or more than maxAmount centimes, by the same client within a
+ * sliding time window. Each client gets a SlidingWindowCounter of a fixed number of buckets, so a
+ * check is constant time and memory per client stays bounded. The rule's conditions pick the
+ * transaction type; this expects transactions with a source client.
+ */
+class VelocityCheck implements RuleCheck {
+    private static final int BUCKETS = 60;
+
+    private final int maxCount;
+    private final long maxAmount;
+    private final long windowNanos;
+    private final Map<UUID, SlidingWindowCounter> windows = new ConcurrentHashMap<>();
+
+    VelocityCheck(int maxCount, long maxAmount, Duration window) {
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public void test(Transaction transaction, AlertSink sink) {
+        SlidingWindowCounter window = windows.computeIfAbsent(transaction.getSourceAccount().getClient().getClientId(),
+            id -> new SlidingWindowCounter(windowNanos, BUCKETS));
+        boolean over;
+        synchronized (window) {
+            window.add(DateUtil.toEpochNanos(transaction.getDate()), transaction.getAmount());
+            over = window.count() > maxCount || window.sum() > maxAmount;
+        }
+        if (over) {
+            sink.flag(transaction);
+        }
+    }
+
+    @Override
+    public void reset() {
+        windows.clear();
+    }
+}
@@ -1,16 +1,89 @@
 package util;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 public class DateUtil {
+    // formatters are immutable and thread-safe, build them once
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     // Formats a LocalDateTime to "dd/mm/yyyy hh:mm" format
     public static String formatDateTime(LocalDateTime dateTime) {
         if (dateTime == null) {
             return null;
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        return dateTime.format(formatter);
+        return dateTime.format(DATE_TIME);
+    }
+
+    // Appends "dd/mm/yyyy hh:mm" to a caller-owned buffer, digit by digit, without allocating
+    public static StringBuilder formatDateTimeTo(StringBuilder out, LocalDateTime dateTime) {
+        appendTwoDigits(out, dateTime.getDayOfMonth()).append('/');
+        appendTwoDigits(out, dateTime.getMonthValue()).append('/');
+        int year = dateTime.getYear();
+        if (year >= 0 && year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        out.append(year).append(' ');
+        appendTwoDigits(out, dateTime.getHour()).append(':');
+        return appendTwoDigits(out, dateTime.getMinute());
+    }
+
+    // Appends ISO-8601 "yyyy-mm-ddThh:mm:ss[.fraction]" to a caller-owned buffer, for machine-readable
+    // exports. The fraction is written in groups of three digits like LocalDateTime.toString(), so
+    // LocalDateTime.parse() reads back the exact instant.
+    public static StringBuilder formatIsoTo(StringBuilder out, LocalDateTime dateTime) {
+        out.append(dateTime.getYear()).append('-');
+        appendTwoDigits(out, dateTime.getMonthValue()).append('-');
+        appendTwoDigits(out, dateTime.getDayOfMonth()).append('T');
+        appendTwoDigits(out, dateTime.getHour()).append(':');
+        appendTwoDigits(out, dateTime.getMinute()).append(':');
+        appendTwoDigits(out, dateTime.getSecond());
+        int nanos = dateTime.getNano();
+        if (nanos == 0) {
+            return out;
+        }
+        out.append('.');
+        if (nanos % 1_000_000 == 0) {
+            return appendDigits(out, nanos / 1_000_000, 3);
+        }
+        if (nanos % 1_000 == 0) {
+            return appendDigits(out, nanos / 1_000, 6);
+        }
+        return appendDigits(out, nanos, 9);
+    }
+
+    // Parses a "dd/mm/yyyy" date, throws DateTimeParseException when malformed
+    public static LocalDate parseDate(String text) {
+        return LocalDate.parse(text.trim(), DATE);
+    }
+
+    // Packs a LocalDateTime into nanoseconds since the epoch (UTC), for compact binary storage
+    public static long toEpochNanos(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    // Reverse of toEpochNanos
+    public static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+            (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    // value zero-padded to the given number of digits
+    private static StringBuilder appendDigits(StringBuilder out, int value, int digits) {
+        int divisor = 1;
+        for (int k = 1; k < digits; k++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+        return out;
     }
 }
@@ -35,6 +35,18 @@ public class InputUtil {
         }
     }
 
+    // read a money amount with a message, returned in centimes
+    public static long readAmount(String message){
+        while (true){
+            try{
+                System.out.printf(message + " ");
+                return MoneyUtil.parse(scanner.nextLine());
+            } catch (NumberFormatException e){
+                System.out.println("Invalid amount, use at most 2 decimals. Try again.");
+            }
+        }
+    }
+
     // read yes/no input
     public static boolean readYesNo(String message) {
         while (true) {
@@ -0,0 +1,126 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to int, stored in two primitive arrays with linear probing.
+ * Lookups and updates never allocate (only a resize does), which is what counting passes over
+ * large ledgers need. Not thread-safe.
+ */
+public class LongIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // expectedSize entries fit without resizing
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), DEFAULT_CAPACITY) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int get(long key, int missingValue) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        int slot = slotFor(key);
+        if (!used[slot]) {
+            insertAt(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    // adds delta to the value of key (0 when absent) and returns the new value
+    public int addTo(long key, int delta) {
+        int slot = slotFor(key);
+        if (!used[slot]) {
+            insertAt(slot, key, delta);
+            return delta;
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private int find(long key) {
+        int slot = slotFor(key);
+        return used[slot] ? slot : -1;
+    }
+
+    // slot holding the key, or the empty slot where it would go
+    private int slotFor(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > resizeAt) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+    }
+
+    // 64-bit finalizer from MurmurHash3, spreads keys that differ only in high or low bits
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,59 @@
+package util;
+
+import java.math.BigDecimal;
+
+/**
+ * Money is handled as a long count of centimes (1 DH = 100). Sums and comparisons are exact
+ * integer arithmetic and need no object per amount; conversion to text happens only at the
+ * console edges through the helpers below.
+ */
+public class MoneyUtil {
+    public static final long CENTS_PER_DH = 100;
+
+    // Whole dirhams to centimes, for limits and thresholds
+    public static long ofDh(long dirhams) {
+        return Math.multiplyExact(dirhams, CENTS_PER_DH);
+    }
+
+    // Parses "1234", "1234.5" or "1234.56" exactly; more than two decimals is rejected
+    public static long parse(String text) {
+        try {
+            return new BigDecimal(text.trim()).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount must have at most 2 decimals: " + text);
+        }
+    }
+
+    // Formats centimes as "1234.56"
+    public static String format(long cents) {
+        return formatTo(new StringBuilder(24), cents).toString();
+    }
+
+    // Appends centimes as "1234.56" to a caller-owned buffer, without allocating
+    public static StringBuilder formatTo(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            if (cents == Long.MIN_VALUE) {
+                // cannot be negated, print the digits by hand
+                return out.append(Long.MIN_VALUE / -CENTS_PER_DH).append('.').append("08");
+            }
+            cents = -cents;
+        }
+        long fraction = cents % CENTS_PER_DH;
+        out.append(cents / CENTS_PER_DH).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    // Average of a total over a count, rounded half up to the nearest centime
+    public static long average(long totalCents, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        long quotient = Math.floorDiv(totalCents, count);
+        long remainder = Math.floorMod(totalCents, count);
+        return remainder * 2 >= count ? quotient + 1 : quotient;
+    }
+}
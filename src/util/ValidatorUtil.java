@@ -1,10 +1,17 @@
 package util;
 
+import java.util.regex.Pattern;
+
 public class ValidatorUtil {
+    // compiled once, String.matches() would compile the regex again on every call
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+    // letters, where each separator is followed by a letter or a space; the same names as the former
+    // ^[a-zA-Z]+(([',. -][a-zA-Z ])?[a-zA-Z]*)*$ but possessive, so a bad name fails in linear time
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[a-zA-Z]++(?:[',. -][a-zA-Z ]|[a-zA-Z])*+$");
+
     // email validation regex
     public static boolean isValidEmail(String email) {
-        String emailRegex = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
-        return email != null && email.matches(emailRegex);
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
     // password validation
@@ -15,22 +22,26 @@ public class ValidatorUtil {
 
     // name validation
     public static boolean isValidName(String name) {
-        String nameRegex = "^[a-zA-Z]+(([',. -][a-zA-Z ])?[a-zA-Z]*)*$";
-        return name != null && name.matches(nameRegex);
+        return name != null && NAME_PATTERN.matcher(name).matches();
     }
 
-    // withdrawal amount validation
-    public static boolean isValidWithdrawAmount(double amount) {
-        return amount > 0 && amount <= 10000; // Max withdrawal limit of 10,000 DH
+    // amount limits, in centimes
+    public static final long MAX_WITHDRAW_AMOUNT = MoneyUtil.ofDh(10000);
+    public static final long MAX_DEPOSIT_AMOUNT = MoneyUtil.ofDh(20000);
+    public static final long MAX_TRANSFER_AMOUNT = MoneyUtil.ofDh(30000);
+
+    // withdrawal amount validation (centimes)
+    public static boolean isValidWithdrawAmount(long amount) {
+        return amount > 0 && amount <= MAX_WITHDRAW_AMOUNT; // Max withdrawal limit of 10,000 DH
     }
 
-    // deposit amount validation
-    public static boolean isValidDepositAmount(double amount) {
-        return amount > 0 && amount <= 20000; // Max deposit limit of 20,000 DH
+    // deposit amount validation (centimes)
+    public static boolean isValidDepositAmount(long amount) {
+        return amount > 0 && amount <= MAX_DEPOSIT_AMOUNT; // Max deposit limit of 20,000 DH
     }
 
-    // transfer amount validation
-    public static boolean isValidTransferAmount(double amount) {
-        return amount > 0 && amount <= 30000; // Max transfer limit of 30,000 DH
+    // transfer amount validation (centimes)
+    public static boolean isValidTransferAmount(long amount) {
+        return amount > 0 && amount <= MAX_TRANSFER_AMOUNT; // Max transfer limit of 30,000 DH
     }
 }
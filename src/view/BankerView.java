@@ -19,9 +19,9 @@ public class BankerView {
 
         while(true){
             System.out.println("1. Manage Clients");
-            // System.out.println("2. Manage Transactions");
-            //System.out.println("3. Statistics");
-            System.out.println("2. Logout");
+            System.out.println("2. Manage Transactions");
+            System.out.println("3. Statistics");
+            System.out.println("4. Logout");
 
             int choice = InputUtil.readInt("\nPlease select an option: ");
 
@@ -29,13 +29,13 @@ public class BankerView {
                 case 1:
                     manageClients();
                     break;
-                /*case 2:
+                case 2:
                     manageTransactions();
                     break;
                 case 3:
                     statistics();
-                    break; */
-                case 2:
+                    break;
+                case 4:
                     controller.HomeController.logout();
                     return;
                 default:
@@ -50,8 +50,9 @@ public class BankerView {
             System.out.println("1. View All Clients");
             System.out.println("2. Add New Client");
             System.out.println("3. Remove Client");
+            System.out.println("4. Import from CSV");
 
-            System.out.println("4. Back to Banker Dashboard");
+            System.out.println("5. Back to Banker Dashboard");
 
             int choice = InputUtil.readInt("\nPlease select an option: ");
 
@@ -68,6 +69,10 @@ public class BankerView {
                     bankerController.removeClient();
                     break;
                 case 4:
+                    System.out.println("\n=== Import from CSV ===\n");
+                    bankerController.bulkImport();
+                    break;
+                case 5:
                     System.out.println("\n");
                     return;
 
@@ -83,7 +88,9 @@ public class BankerView {
             System.out.println("1. View All Transactions");
             System.out.println("2. View a Client Transactions");
             System.out.println("3. View Suspicious Transactions");
-            System.out.println("4. Back to Banker Dashboard");
+            System.out.println("4. Search Transactions");
+            System.out.println("5. Export Ledger");
+            System.out.println("6. Back to Banker Dashboard");
 
             int choice = InputUtil.readInt("\nPlease select an option: ");
 
@@ -98,6 +105,12 @@ public class BankerView {
                     bankerController.viewSuspiciousTransactions();
                     break;
                 case 4:
+                    bankerController.searchTransactions();
+                    break;
+                case 5:
+                    bankerController.exportLedger();
+                    break;
+                case 6:
                     System.out.println("\n");
                     return;
                 default:
@@ -150,7 +163,7 @@ public class BankerView {
             break; // Exit loop when valid selection is made
         }
 
-        double initialBalance = InputUtil.readDouble("Enter initial balance");
+        long initialBalance = InputUtil.readAmount("Enter initial balance");
 
         bankerController.addNewClientWithAccount(firstName, lastName, email, password, accountType, initialBalance);
     }
@@ -6,6 +6,9 @@ import controller.TransactionController;
 import model.Client;
 import model.Account;
 import util.InputUtil;
+import util.MoneyUtil;
+
+import java.util.List;
 
 public class ClientView {
     
@@ -26,15 +29,18 @@ public class ClientView {
             if (currentClient != null) {
                 System.out.println("Welcome Mr. " + currentClient.getFirstName() + "\n");
 
-                try {
-                    Account primaryAccount = clientController.getPrimaryAccount();
-                    System.out.println("•" + primaryAccount.getAccountType() + " Account: " + primaryAccount.getAccountId());
-                    System.out.println("•Balance: " + String.format("%.2f", primaryAccount.getBalance()) + " DH");
-                    System.out.println("•Total Withdrawals: " + String.format("%.2f", transactionController.getTotalWithdrawals()) + " DH");
-                    System.out.println("•Total Deposits: " + String.format("%.2f", transactionController.getTotalDeposits()) + " DH");
-                    System.out.println("•Total Transfers: " + String.format("%.2f", transactionController.getTotalTransfers()) + " DH");
-                } catch (IllegalStateException e) {
+                List<Account> accounts = clientController.getAccounts();
+                if (accounts.isEmpty()) {
                     System.out.println("•No account information available");
+                } else {
+                    for (Account account : accounts) {
+                        System.out.println("•" + account.getAccountType() + " Account: " + account.getAccountId()
+                            + " | Balance: " + MoneyUtil.format(account.getBalance()) + " DH");
+                    }
+                    // totals cover all accounts, transfers between them count once
+                    System.out.println("•Total Withdrawals: " + MoneyUtil.format(transactionController.getTotalWithdrawals()) + " DH");
+                    System.out.println("•Total Deposits: " + MoneyUtil.format(transactionController.getTotalDeposits()) + " DH");
+                    System.out.println("•Total Transfers: " + MoneyUtil.format(transactionController.getTotalTransfers()) + " DH");
                 }
                 System.out.println();
             }
@@ -42,7 +48,8 @@ public class ClientView {
             System.out.println("1. Make Transaction");
             System.out.println("2. View Transaction History");
             System.out.println("3. Filter Transactions");
-            System.out.println("4. Logout");
+            System.out.println("4. Export Statement");
+            System.out.println("5. Logout");
 
             int choice = InputUtil.readInt("Please select an option: ");
 
@@ -57,6 +64,9 @@ public class ClientView {
                     transactionController.filterAndSortTransactions();
                     break;
                 case 4:
+                    transactionController.exportStatement();
+                    break;
+                case 5:
                     controller.HomeController.logout();
                     return;
                 default: